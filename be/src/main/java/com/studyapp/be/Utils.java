@@ -1,8 +1,19 @@
 package com.studyapp.be;
 
+import com.studyapp.be.enums.AppError;
+import com.studyapp.be.exceptions.AppException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.data.domain.Sort;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
 public class Utils {
+    private static final String CURSOR_SEPARATOR = "|";
+    public static final int MAX_PAGE_SIZE = 100;
+
     public static Sort parseSort(String[] sortParams) {
         Sort sort = Sort.unsorted();
         if (!sortParams[0].contains(",")) {
@@ -23,4 +34,56 @@ public class Utils {
         }
         return sort;
     }
+
+    public static int checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new AppException(AppError.INVALID_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    public static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(CURSOR_SEPARATOR);
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separatorIndex)), Long.parseLong(raw.substring(separatorIndex + 1)));
+        } catch (RuntimeException e) {
+            throw new AppException(AppError.INVALID_CURSOR);
+        }
+    }
+
+    public static String encodeFeedCursor(int tier, long score, LocalDateTime createdAt, Long id) {
+        String raw = tier + CURSOR_SEPARATOR + score + CURSOR_SEPARATOR + createdAt + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decodeFeedCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\" + CURSOR_SEPARATOR, -1);
+            return new FeedCursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]), LocalDateTime.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new AppException(AppError.INVALID_CURSOR);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Cursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FeedCursor {
+        private final int tier;
+        private final long score;
+        private final LocalDateTime createdAt;
+        private final Long id;
+    }
 }
@@ -0,0 +1,31 @@
+package com.studyapp.be.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+public class LocalStorageConfig implements WebMvcConfigurer {
+
+    @Value("${app.storage.local.root:storage}")
+    private String root;
+
+    @Value("${app.storage.local.url-path:/storage}")
+    private String urlPath;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Blobs are content-addressed, so a key never changes content and can be cached forever.
+        String location = Paths.get(root).toAbsolutePath().normalize().toUri().toString();
+        registry.addResourceHandler(urlPath + "/**")
+                .addResourceLocations(location.endsWith("/") ? location : location + "/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+    }
+}
@@ -0,0 +1,22 @@
+package com.studyapp.be.configs;
+
+import com.studyapp.be.listeners.RedisBrokerBridge;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@ConditionalOnProperty(name = "app.websocket.broker", havingValue = "redis")
+public class RedisBrokerConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisBrokerListenerContainer(RedisConnectionFactory connectionFactory, RedisBrokerBridge redisBrokerBridge) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(redisBrokerBridge, new ChannelTopic(redisBrokerBridge.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,31 @@
+package com.studyapp.be.configs;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+// The document expression must stay identical to idx_message_content_fts so Postgres can use the GIN index.
+public class SearchFunctionContributor implements FunctionContributor {
+    public static final String MATCH = "fts_match";
+    public static final String RANK = "fts_rank";
+    public static final String HEADLINE = "fts_headline";
+    // ts_headline does not escape the document, so matches are delimited with control characters and turned into <mark> after escaping.
+    public static final char HEADLINE_START = '\u0002';
+    public static final char HEADLINE_STOP = '\u0003';
+
+    public static final String DOCUMENT = "to_tsvector('simple', coalesce(%s, ''))";
+    private static final String QUERY = "websearch_to_tsquery('simple', ?2)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        String document = String.format(DOCUMENT, "?1");
+        registry.registerPattern(MATCH, "(" + document + " @@ " + QUERY + ")", types.resolve(StandardBasicTypes.BOOLEAN));
+        registry.registerPattern(RANK, "ts_rank_cd(" + document + ", " + QUERY + ")", types.resolve(StandardBasicTypes.DOUBLE));
+        registry.registerPattern(HEADLINE, "ts_headline('simple', translate(coalesce(?1, ''), chr(2) || chr(3), ''), " + QUERY + ", " +
+                "'StartSel=' || chr(2) || ', StopSel=' || chr(3) || ', MaxFragments=2, MaxWords=20, MinWords=5')", types.resolve(StandardBasicTypes.STRING));
+    }
+}
@@ -3,6 +3,7 @@ package com.studyapp.be.configs;
 import com.studyapp.be.filters.JwtAuthenticationFilter;
 import com.studyapp.be.services.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,13 +28,16 @@ public class SecurityConfig {
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${app.storage.local.url-path:/storage}")
+    private String storageUrlPath;
+
     @Bean
     public SecurityFilterChain configure(HttpSecurity http) throws Exception {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorizeRequests -> {
-                    authorizeRequests.requestMatchers("/ws/**", "/app/**", "/auth/**", "/swagger-ui/**", "/v3/**", "/fcm-tokens/all").permitAll();
+                    authorizeRequests.requestMatchers("/ws/**", "/app/**", "/auth/**", "/swagger-ui/**", "/v3/**", "/fcm-tokens/all", storageUrlPath + "/**").permitAll();
 //                    authorizeRequests.anyRequest().authenticated();
                     authorizeRequests.anyRequest().permitAll();
                 })
@@ -1,8 +1,14 @@
 package com.studyapp.be.configs;
 
+import com.studyapp.be.filters.StompAuthenticationInterceptor;
+import com.studyapp.be.listeners.RedisBrokerBridge;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -10,11 +16,33 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 import java.util.List;
 
     @Configuration
+    @RequiredArgsConstructor
     @EnableWebSocketMessageBroker
     public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         @Value("#{'${app.allowed-origins}'.split(',')}")
         private List<String> allowedOrigins;
 
+        @Value("${app.websocket.broker:simple}")
+        private String brokerMode;
+
+        @Value("${app.websocket.relay.host:localhost}")
+        private String relayHost;
+
+        @Value("${app.websocket.relay.port:61613}")
+        private int relayPort;
+
+        @Value("${app.websocket.relay.login:guest}")
+        private String relayLogin;
+
+        @Value("${app.websocket.relay.passcode:guest}")
+        private String relayPasscode;
+
+        @Value("${app.websocket.relay.virtual-host:}")
+        private String relayVirtualHost;
+
+        private final ObjectProvider<RedisBrokerBridge> redisBrokerBridge;
+        private final StompAuthenticationInterceptor stompAuthenticationInterceptor;
+
         @Override
         public void registerStompEndpoints(StompEndpointRegistry registry) {
             registry.addEndpoint("/ws")
@@ -24,7 +52,29 @@ import java.util.List;
 
         @Override
         public void configureMessageBroker(MessageBrokerRegistry registry) {
-            registry.enableSimpleBroker("/topic", "/queue");
+            if ("relay".equalsIgnoreCase(brokerMode)) {
+                StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/topic", "/queue")
+                        .setRelayHost(relayHost)
+                        .setRelayPort(relayPort)
+                        .setClientLogin(relayLogin)
+                        .setClientPasscode(relayPasscode)
+                        .setSystemLogin(relayLogin)
+                        .setSystemPasscode(relayPasscode);
+                if (!relayVirtualHost.isEmpty()) {
+                    relay.setVirtualHost(relayVirtualHost);
+                }
+            } else {
+                registry.enableSimpleBroker("/topic", "/queue");
+                RedisBrokerBridge bridge = redisBrokerBridge.getIfAvailable();
+                if (bridge != null) {
+                    registry.configureBrokerChannel().interceptors(bridge);
+                }
+            }
             registry.setApplicationDestinationPrefixes("/app");
         }
+
+        @Override
+        public void configureClientInboundChannel(ChannelRegistration registration) {
+            registration.interceptors(stompAuthenticationInterceptor);
+        }
     }
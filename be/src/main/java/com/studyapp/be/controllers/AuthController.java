@@ -3,11 +3,13 @@ package com.studyapp.be.controllers;
 import com.studyapp.be.dto.request.UserLoginRequestDto;
 import com.studyapp.be.dto.request.UserSignUpRequest;
 import com.studyapp.be.dto.response.UserLoginResponseDto;
+import com.studyapp.be.filters.JwtAuthenticationFilter;
 import com.studyapp.be.services.AuthService;
 import com.studyapp.be.services.EmailService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -41,6 +43,16 @@ public class AuthController {
         return ResponseEntity.ok(authService.login(userLoginRequestDto));
     }
 
+    @Operation(
+            summary = "User Logout",
+            description = "Revokes the bearer token sent with the request so it can no longer be used."
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        authService.logout(JwtAuthenticationFilter.getTokenFromRequest(request));
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(
             summary = "User Sign Up",
             description = "Registers a new user, sends an email with a verification link, and returns the created user's information."
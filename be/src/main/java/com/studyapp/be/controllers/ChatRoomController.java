@@ -86,8 +86,8 @@ public class ChatRoomController {
             @Parameter(description = "Page size for pagination (default is 10)", required = false)
             @RequestParam(defaultValue = "10") int size,
 
-            @Parameter(description = "Sort criteria in the format property,direction. Default is createdAt,desc", required = false)
-            @RequestParam(defaultValue = "createdAt,desc") String[] sort
+            @Parameter(description = "Sort criteria in the format property,direction. Default is lastActivityAt,desc, which orders the inbox by the latest message", required = false)
+            @RequestParam(defaultValue = "lastActivityAt,desc") String[] sort
     ) {
         Sort multiSort = Utils.parseSort(sort);
         Pageable pageable = PageRequest.of(page, size, multiSort);
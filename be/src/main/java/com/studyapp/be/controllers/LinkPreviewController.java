@@ -1,15 +1,22 @@
 package com.studyapp.be.controllers;
 
+import com.studyapp.be.dto.request.LinkPreviewBatchRequestDto;
 import com.studyapp.be.dto.response.LinkPreviewDTO;
+import com.studyapp.be.services.LinkPreviewBatchService;
 import com.studyapp.be.services.LinkPreviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 
 @Tag(
@@ -22,6 +29,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class LinkPreviewController {
 
     private final LinkPreviewService previewService;
+    private final LinkPreviewBatchService batchService;
 
     @Operation(
             summary = "Fetch link preview metadata",
@@ -35,4 +43,15 @@ public class LinkPreviewController {
         return ResponseEntity.ok(meta);
     }
 
+    @Operation(
+            summary = "Fetch link previews for several URLs",
+            description = "Streams one `LinkPreviewResultDto` JSON object per line as each preview becomes available. Cached previews come first."
+    )
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter previewBatch(
+            @RequestBody @Valid LinkPreviewBatchRequestDto request
+    ) {
+        return batchService.previewAll(request.getUrls());
+    }
+
 }
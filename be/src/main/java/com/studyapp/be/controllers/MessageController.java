@@ -2,10 +2,22 @@ package com.studyapp.be.controllers;
 
 import com.studyapp.be.Utils;
 import com.studyapp.be.dto.request.CreateMessageRequestDto;
+import com.studyapp.be.dto.request.ReadReceiptRequestDto;
+import com.studyapp.be.dto.request.SendChatMessageRequestDto;
+import com.studyapp.be.dto.response.CursorSliceResponseDto;
+import com.studyapp.be.dto.response.CustomUserDetails;
+import com.studyapp.be.dto.response.MessageAckDto;
 import com.studyapp.be.dto.response.MessageResponseDto;
+import com.studyapp.be.dto.response.ReadReceiptDto;
+import com.studyapp.be.dto.response.UnreadCountDto;
+import com.studyapp.be.enums.AppError;
+import com.studyapp.be.enums.MessageSearchMode;
 import com.studyapp.be.enums.MessageStatus;
 import com.studyapp.be.enums.MessageType;
+import com.studyapp.be.exceptions.AppException;
 import com.studyapp.be.services.MessageService;
+import com.studyapp.be.services.ReadReceiptService;
+import com.studyapp.be.services.SecurityService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,12 +29,22 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.security.Principal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -33,6 +55,8 @@ public class MessageController {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final MessageService messageService;
+    private final ReadReceiptService readReceiptService;
+    private final SecurityService securityService;
 
     @Operation(
             summary = "Search Messages",
@@ -49,6 +73,9 @@ public class MessageController {
             @Parameter(description = "Keyword to search in message content", required = false)
             @RequestParam(required = false) String keyword,
 
+            @Parameter(description = "FULL_TEXT matches whole words through the full-text index and fills highlight; CONTAINS matches any substring (default is CONTAINS)", required = false)
+            @RequestParam(defaultValue = "CONTAINS") MessageSearchMode searchMode,
+
             @Parameter(description = "Status of the message", required = false)
             @RequestParam(required = false) MessageStatus status,
 
@@ -76,12 +103,35 @@ public class MessageController {
             @Parameter(description = "Page size for pagination (default is 10)", required = false)
             @RequestParam(defaultValue = "10") int size,
 
-            @Parameter(description = "Sort criteria in the format property,direction (default is createdAt,asc)", required = false)
+            @Parameter(description = "Sort criteria in the format property,direction (default is createdAt,asc). Use relevance,desc to rank full-text matches", required = false)
             @RequestParam(defaultValue = "createdAt,asc") String[] sort
     ) {
         Sort multiSort = Utils.parseSort(sort);
         Pageable pageable = PageRequest.of(page, size, multiSort);
-        return messageService.searchMessages(senderId, roomId, status, type, isDeleted, startDate, endDate, keyword, isHasFiles, pageable, paged);
+        return messageService.searchMessages(senderId, roomId, status, type, isDeleted, startDate, endDate, keyword, isHasFiles, searchMode, pageable, paged);
+    }
+
+    @Operation(
+            summary = "Scroll Messages",
+            description = "Retrieves messages of a chat room from newest to oldest using keyset pagination. Pass an empty cursor for the first page and the returned nextCursor for the following pages."
+    )
+    @GetMapping(params = "cursor")
+    public CursorSliceResponseDto<MessageResponseDto> scrollMessages(
+            @Parameter(description = "ID of the chat room", required = true)
+            @RequestParam Long roomId,
+
+            @Parameter(description = "Opaque cursor returned by the previous page, empty for the first page", required = true)
+            @RequestParam String cursor,
+
+            @Parameter(description = "Page size, 1 to 100 (default is 20)", required = false)
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Utils.checkPageSize(size);
+        if (!StringUtils.hasText(cursor)) {
+            return messageService.scrollMessages(roomId, null, null, size);
+        }
+        Utils.Cursor decoded = Utils.decodeCursor(cursor);
+        return messageService.scrollMessages(roomId, decoded.getCreatedAt(), decoded.getId(), size);
     }
 
     @Operation(
@@ -103,6 +153,78 @@ public class MessageController {
         return ResponseEntity.created(location).body(messageResponseDto);
     }
 
+    @MessageMapping("/chatRooms/{id}/send")
+    @SendToUser(destinations = "/queue/messages/ack", broadcast = false)
+    public MessageAckDto sendMessageOverSocket(@DestinationVariable Long id, @Payload SendChatMessageRequestDto message, Principal principal) {
+        if (!(principal instanceof Authentication authentication) || !(authentication.getPrincipal() instanceof CustomUserDetails userDetails)) {
+            throw new AppException(AppError.AUTH_ACCESS_DENIED);
+        }
+        if (!StringUtils.hasText(message.getContent())) {
+            throw new AppException(AppError.MESSAGE_EMPTY_CONTENT);
+        }
+        CreateMessageRequestDto createMessageRequestDto = CreateMessageRequestDto.builder()
+                .roomId(id)
+                .content(message.getContent())
+                .repliedTargetId(message.getRepliedTargetId())
+                .repliedTargetType(message.getRepliedTargetType())
+                .build();
+        MessageResponseDto messageResponseDto = messageService.sendTextMessage(createMessageRequestDto, userDetails.getId());
+        messagingTemplate.convertAndSend("/topic/chatRooms/" + id + "/newMessage", messageResponseDto);
+        return MessageAckDto.builder()
+                .clientMessageId(message.getClientMessageId())
+                .messageId(messageResponseDto.getId())
+                .roomId(id)
+                .createdAt(messageResponseDto.getCreatedAt())
+                .build();
+    }
+
+    @MessageMapping("/chatRooms/{id}/receipts")
+    public void reportReceiptOverSocket(@DestinationVariable Long id, @Payload ReadReceiptRequestDto receipt, Principal principal) {
+        if (!(principal instanceof Authentication authentication) || !(authentication.getPrincipal() instanceof CustomUserDetails userDetails)) {
+            throw new AppException(AppError.AUTH_ACCESS_DENIED);
+        }
+        readReceiptService.report(id, userDetails.getId(), receipt);
+    }
+
+    @Operation(
+            summary = "Get Read Receipts",
+            description = "Retrieves the delivered and read watermarks of every member of a chat room."
+    )
+    @GetMapping("/receipts")
+    public List<ReadReceiptDto> getReceipts(
+            @Parameter(description = "ID of the chat room", required = true)
+            @RequestParam Long roomId
+    ) {
+        return readReceiptService.findReceipts(roomId);
+    }
+
+    @Operation(
+            summary = "Count Unread Messages",
+            description = "Counts the messages after the current user's read watermark in each of the given chat rooms."
+    )
+    @GetMapping("/unread-counts")
+    public List<UnreadCountDto> countUnread(
+            @Parameter(description = "IDs of the chat rooms", required = true)
+            @RequestParam List<Long> roomIds
+    ) {
+        return readReceiptService.countUnread(securityService.getCurrentUserId(), roomIds);
+    }
+
+    @MessageExceptionHandler(AppException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, String> handleSocketException(AppException exception) {
+        return Map.of("errorMessage", exception.getMessage(), "status", exception.getError().getHttpStatus().name());
+    }
+
+    // Anything else would only be logged by the broker and leave the client waiting, so report a generic error.
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, String> handleUnexpectedSocketException(Exception exception) {
+        log.error("STOMP message handling error", exception);
+        AppError error = AppError.INTERNAL_SERVER_ERROR;
+        return Map.of("errorMessage", error.getMessage(), "status", error.getHttpStatus().name());
+    }
+
     @Operation(
             summary = "Delete Message",
             description = "Deletes a message identified by the provided message ID."
@@ -3,6 +3,7 @@ package com.studyapp.be.controllers;
 import com.studyapp.be.Utils;
 import com.studyapp.be.dto.request.CreateCommentRequestDto;
 import com.studyapp.be.dto.request.CreatePostRequestDto;
+import com.studyapp.be.dto.response.CursorSliceResponseDto;
 import com.studyapp.be.dto.response.CommentResponseDto;
 import com.studyapp.be.dto.response.PostResponseDto;
 import com.studyapp.be.dto.response.ReactionResponseDto;
@@ -20,6 +21,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -54,13 +56,27 @@ public class PostController {
 
     @Operation(
             summary = "Get feed",
-            description = "Retrieves a paginated list of posts for the feed, supporting sorting."
+            description = "Retrieves ranked feed posts using keyset pagination. Omit the cursor for the first page and pass the returned nextCursor for the following pages."
     )
     @GetMapping("/feed")
-    public ResponseEntity<Page<PostResponseDto>> getFeed(
+    public ResponseEntity<CursorSliceResponseDto<PostResponseDto>> getFeed(
+            @Parameter(description = "Opaque cursor returned by the previous page, empty for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of posts per page, 1 to 100", example = "10") @RequestParam(defaultValue = "10") int size) {
+        Utils.checkPageSize(size);
+        Utils.FeedCursor decoded = StringUtils.hasText(cursor) ? Utils.decodeFeedCursor(cursor) : null;
+        return ResponseEntity.ok(postService.getRankedPosts(decoded, size));
+    }
+
+    @Operation(
+            summary = "Search posts",
+            description = "Retrieves a paginated list of posts whose content contains every keyword term, newest first."
+    )
+    @GetMapping("/search")
+    public ResponseEntity<Page<PostResponseDto>> searchPosts(
+            @Parameter(description = "Keyword to search for", required = true) @RequestParam String keyword,
             @Parameter(description = "Page number", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Number of posts per page", example = "10") @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(postService.getRankedPosts(page, size));
+        return ResponseEntity.ok(postService.searchPosts(keyword, page, size));
     }
 
     @Operation(
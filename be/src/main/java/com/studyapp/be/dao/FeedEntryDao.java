@@ -0,0 +1,74 @@
+package com.studyapp.be.dao;
+
+import com.studyapp.be.entities.FeedEntry;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FeedEntryDao extends CrudRepository<FeedEntry, Long> {
+    @Query(value = "SELECT * FROM feed_entries WHERE user_id = :userId " +
+            "ORDER BY tier ASC, score DESC, post_created_at DESC, post_id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<FeedEntry> findRankedByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM feed_entries WHERE user_id = :userId " +
+            "AND (tier > :tier OR (tier = :tier AND (score, post_created_at, post_id) < (:score, :createdAt, :postId))) " +
+            "ORDER BY tier ASC, score DESC, post_created_at DESC, post_id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<FeedEntry> findRankedByUserIdAfter(@Param("userId") Long userId, @Param("tier") int tier, @Param("score") long score,
+                                            @Param("createdAt") LocalDateTime createdAt, @Param("postId") Long postId,
+                                            @Param("limit") int limit);
+
+    boolean existsByIdIsNotNull();
+
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, post_id, author_id, tier, score, post_created_at) " +
+            "SELECT CASE WHEN f.user1_id = :authorId THEN f.user2_id ELSE f.user1_id END, :postId, :authorId, 1, 0, :createdAt " +
+            "FROM friendships f WHERE f.user1_id = :authorId OR f.user2_id = :authorId " +
+            "ON CONFLICT (user_id, post_id) DO NOTHING", nativeQuery = true)
+    int fanOutToFriends(@Param("postId") Long postId, @Param("authorId") Long authorId, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, post_id, author_id, tier, score, post_created_at) " +
+            "SELECT :userId, p.id, p.creator_id, 1, p.engagement_score, p.created_at FROM posts p WHERE p.creator_id = :authorId " +
+            "ON CONFLICT (user_id, post_id) DO NOTHING", nativeQuery = true)
+    int copyAuthorPosts(@Param("userId") Long userId, @Param("authorId") Long authorId);
+
+    @Modifying
+    @Query("DELETE FROM FeedEntry f WHERE f.userId = :userId AND f.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(@Param("userId") Long userId, @Param("authorId") Long authorId);
+
+    @Modifying
+    @Query("DELETE FROM FeedEntry f WHERE f.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    @Modifying
+    @Query("UPDATE FeedEntry f SET f.score = f.score + :delta WHERE f.postId = :postId")
+    int addToScore(@Param("postId") Long postId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE feed_entries f SET score = p.engagement_score FROM posts p WHERE p.id = f.post_id AND f.score <> p.engagement_score", nativeQuery = true)
+    int syncScoresFromPosts();
+
+    @Modifying
+    @Query(value = "DELETE FROM feed_entries", nativeQuery = true)
+    int deleteAllEntries();
+
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, post_id, author_id, tier, score, post_created_at) " +
+            "SELECT p.creator_id, p.id, p.creator_id, 0, p.engagement_score, p.created_at FROM posts p", nativeQuery = true)
+    int rebuildSelfEntries();
+
+    @Modifying
+    @Query(value = "INSERT INTO feed_entries (user_id, post_id, author_id, tier, score, post_created_at) " +
+            "SELECT CASE WHEN f.user1_id = p.creator_id THEN f.user2_id ELSE f.user1_id END, p.id, p.creator_id, 1, p.engagement_score, p.created_at " +
+            "FROM friendships f JOIN posts p ON p.creator_id = f.user1_id OR p.creator_id = f.user2_id " +
+            "ON CONFLICT (user_id, post_id) DO NOTHING", nativeQuery = true)
+    int rebuildFriendEntries();
+}
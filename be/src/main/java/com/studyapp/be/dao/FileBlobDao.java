@@ -0,0 +1,39 @@
+package com.studyapp.be.dao;
+
+import com.studyapp.be.entities.FileBlob;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface FileBlobDao extends CrudRepository<FileBlob, Long> {
+    Optional<FileBlob> findByContentHashAndType(String contentHash, String type);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :contentHash AND b.type = :type")
+    int incrementRefCount(@Param("contentHash") String contentHash, @Param("type") String type);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO file_blobs (content_hash, type, file_cloud_id, path, ref_count, created_at) " +
+            "VALUES (:contentHash, :type, :fileCloudId, :path, 1, now()) " +
+            "ON CONFLICT (content_hash, type) DO UPDATE SET ref_count = file_blobs.ref_count + 1", nativeQuery = true)
+    int register(@Param("contentHash") String contentHash, @Param("type") String type,
+                 @Param("fileCloudId") String fileCloudId, @Param("path") String path);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1 WHERE b.contentHash = :contentHash AND b.type = :type")
+    int decrementRefCount(@Param("contentHash") String contentHash, @Param("type") String type);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.contentHash = :contentHash AND b.type = :type AND b.refCount <= 0")
+    int deleteUnreferenced(@Param("contentHash") String contentHash, @Param("type") String type);
+}
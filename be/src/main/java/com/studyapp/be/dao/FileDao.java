@@ -6,4 +6,5 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface FileDao extends CrudRepository<File, Long> {
+    boolean existsByFileCloudId(String fileCloudId);
 }
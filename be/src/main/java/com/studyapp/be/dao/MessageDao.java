@@ -1,10 +1,56 @@
 package com.studyapp.be.dao;
 
+import com.studyapp.be.dto.response.MessageHighlightDto;
+import com.studyapp.be.dto.response.SearchDocumentDto;
 import com.studyapp.be.entities.Message;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface MessageDao extends CrudRepository<Message, Long>, JpaSpecificationExecutor<Message> {
+    long countByRoomId(Long roomId);
+
+    @Query("SELECT new com.studyapp.be.dto.response.MessageHighlightDto(m.id, fts_headline(m.content, :keyword)) " +
+            "FROM Message m WHERE m.id IN :ids")
+    List<MessageHighlightDto> findHighlights(@Param("ids") Collection<Long> ids, @Param("keyword") String keyword);
+
+    @Query("SELECT new com.studyapp.be.dto.response.SearchDocumentDto(m.id, m.content, m.createdAt, m.room.id, m.sender.id) " +
+            "FROM Message m WHERE m.isDeleted = false AND m.createdAt >= :since AND m.id > :afterId ORDER BY m.id")
+    List<SearchDocumentDto> findSearchDocuments(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "sender")
+    Page<Message> findAll(Specification<Message> spec, Pageable pageable);
+
+    @EntityGraph(attributePaths = "sender")
+    List<Message> findAllByIdIn(Collection<Long> ids);
+
+    @Query("SELECT m FROM Message m WHERE m.pendingAttachments > 0 AND m.createdAt < :before")
+    List<Message> findWithPendingAttachmentsBefore(@Param("before") LocalDateTime before);
+
+    @EntityGraph(attributePaths = "sender")
+    @Query("SELECT m FROM Message m WHERE m.room.id = :roomId ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> findLatestByRoomId(@Param("roomId") Long roomId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "sender")
+    @Query("SELECT m FROM Message m " +
+            "WHERE m.room.id = :roomId " +
+            "  AND (m.createdAt < :beforeCreatedAt OR (m.createdAt = :beforeCreatedAt AND m.id < :beforeId)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<Message> findByRoomIdBefore(@Param("roomId") Long roomId,
+                                      @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                      @Param("beforeId") Long beforeId,
+                                      Pageable pageable);
 }
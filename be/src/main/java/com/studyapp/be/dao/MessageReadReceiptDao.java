@@ -0,0 +1,29 @@
+package com.studyapp.be.dao;
+
+import com.studyapp.be.dto.response.ReadReceiptDto;
+import com.studyapp.be.dto.response.UnreadCountDto;
+import com.studyapp.be.entities.MessageReadReceipt;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MessageReadReceiptDao extends CrudRepository<MessageReadReceipt, Long> {
+    @Query("SELECT new com.studyapp.be.dto.response.ReadReceiptDto(r.room.id, r.user.id, r.lastDeliveredMessageId, r.lastReadMessageId) " +
+            "FROM MessageReadReceipt r WHERE r.room.id IN :roomIds")
+    List<ReadReceiptDto> findReceiptsByRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
+    // Only messages after the member's watermark are scanned, using idx_message_room_created_at_id.
+    @Query("SELECT new com.studyapp.be.dto.response.UnreadCountDto(crm.chatRoom.id, COUNT(m.id)) " +
+            "FROM ChatRoomMember crm " +
+            "LEFT JOIN MessageReadReceipt r ON r.room = crm.chatRoom AND r.user = crm.user " +
+            "LEFT JOIN Message m ON m.room = crm.chatRoom AND m.isDeleted = false AND m.sender <> crm.user " +
+            "  AND (r.lastReadAt IS NULL OR m.createdAt > r.lastReadAt OR (m.createdAt = r.lastReadAt AND m.id > r.lastReadMessageId)) " +
+            "WHERE crm.user.id = :userId AND crm.chatRoom.id IN :roomIds " +
+            "GROUP BY crm.chatRoom.id")
+    List<UnreadCountDto> countUnread(@Param("userId") Long userId, @Param("roomIds") Collection<Long> roomIds);
+}
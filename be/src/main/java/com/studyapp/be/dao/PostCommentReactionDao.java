@@ -2,6 +2,7 @@ package com.studyapp.be.dao;
 
 import com.studyapp.be.dao.bases.BaseReactionDao;
 import com.studyapp.be.dto.response.ReactionSummaryDto;
+import com.studyapp.be.dto.response.UserReactionDto;
 import com.studyapp.be.entities.PostComment;
 import com.studyapp.be.entities.PostCommentReaction;
 import com.studyapp.be.entities.User;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,4 +20,8 @@ public interface PostCommentReactionDao extends BaseReactionDao<PostCommentReact
     List<ReactionSummaryDto> getReactionSummaryByComment(@Param("comment") PostComment comment);
 
     boolean existsByCommentAndCreator(PostComment comment, User creator);
+
+    @Query("SELECT new com.studyapp.be.dto.response.UserReactionDto(r.comment.id, r.id, r.emoji) " +
+            "FROM PostCommentReaction r WHERE r.creator.id = :userId AND r.comment.id IN :commentIds")
+    List<UserReactionDto> findUserReactionsByCommentIds(@Param("userId") Long userId, @Param("commentIds") Collection<Long> commentIds);
 }
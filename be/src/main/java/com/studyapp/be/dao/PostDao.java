@@ -1,37 +1,111 @@
 package com.studyapp.be.dao;
 
+import com.studyapp.be.dto.response.SearchDocumentDto;
 import com.studyapp.be.entities.Post;
 import com.studyapp.be.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PostDao extends CrudRepository<Post, Long>, JpaSpecificationExecutor<Post> {
 
-    @Query("SELECT p " +
-            "FROM Post p " +
-            "LEFT JOIN PostReaction r ON  r.post.id = p.id " +
-            "LEFT JOIN PostComment c ON c.post.id = p.id " +
-            "LEFT JOIN FriendShip fs ON ((fs.user1.id = :userId AND fs.user2.id = p.creator.id) " +
-            "                           OR (fs.user2.id = :userId AND fs.user1.id = p.creator.id)) " +
-            "GROUP BY p " +
-            "ORDER BY " +
-            "  CASE WHEN p.creator.id = :userId THEN 0 " +
-            "       WHEN MAX(fs.id) IS NOT NULL THEN 1 " +
-            "       ELSE 2 END ASC, " +
-            "  COUNT(r) DESC, " +
-            "  COUNT(c) DESC, " +
-            "  p.createdAt DESC")
-    Page<Post> findRankedPostsByUser(@Param("userId") Long userId, Pageable pageable);
+    @Query(value = "SELECT p.* FROM posts p " +
+            "WHERE p.creator_id <> :userId " +
+            "  AND NOT EXISTS (SELECT 1 FROM feed_entries f WHERE f.user_id = :userId AND f.post_id = p.id) " +
+            "ORDER BY p.engagement_score DESC, p.created_at DESC, p.id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Post> findOtherRankedPosts(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = "SELECT p.* FROM posts p " +
+            "WHERE p.creator_id <> :userId " +
+            "  AND (p.engagement_score, p.created_at, p.id) < (:score, :createdAt, :postId) " +
+            "  AND NOT EXISTS (SELECT 1 FROM feed_entries f WHERE f.user_id = :userId AND f.post_id = p.id) " +
+            "ORDER BY p.engagement_score DESC, p.created_at DESC, p.id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Post> findOtherRankedPostsAfter(@Param("userId") Long userId, @Param("score") long score,
+                                         @Param("createdAt") LocalDateTime createdAt, @Param("postId") Long postId,
+                                         @Param("limit") int limit);
+
+    @Query("SELECT p.id FROM Post p WHERE p.pendingAttachments > 0 AND p.createdAt < :before")
+    List<Long> findIdsWithPendingAttachmentsBefore(@Param("before") LocalDateTime before);
 
     @Query("SELECT p FROM Post p WHERE p.creator.id = :userId ORDER BY p.createdAt DESC")
     Page<Post> findPostsByUserId(@Param("userId") Long userId, Pageable pageable);
     long countByCreator(User creator);
 
+    Page<Post> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+    @Query("SELECT p FROM Post p WHERE LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    Page<Post> searchByContent(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query("SELECT new com.studyapp.be.dto.response.SearchDocumentDto(p.id, p.content, p.createdAt, p.creator.id) " +
+            "FROM Post p WHERE p.createdAt >= :since AND p.id > :afterId ORDER BY p.id")
+    List<SearchDocumentDto> findSearchDocuments(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int addToCommentCount(@Param("postId") Long postId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.engagementScore = p.engagementScore + :delta WHERE p.id = :postId")
+    int addToEngagementScore(@Param("postId") Long postId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO post_reaction_counts (post_id, emoji, total) VALUES (:postId, :emoji, 1) " +
+            "ON CONFLICT (post_id, emoji) DO UPDATE SET total = post_reaction_counts.total + 1", nativeQuery = true)
+    int incrementReactionCount(@Param("postId") Long postId, @Param("emoji") String emoji);
+
+    @Modifying
+    @Query(value = "UPDATE post_reaction_counts SET total = total - 1 WHERE post_id = :postId AND emoji = :emoji", nativeQuery = true)
+    int decrementReactionCount(@Param("postId") Long postId, @Param("emoji") String emoji);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_reaction_counts WHERE post_id = :postId AND total <= 0", nativeQuery = true)
+    int deleteEmptyReactionCounts(@Param("postId") Long postId);
+
+    // Every counter write locks its post row first, so reconciliation and live writes take their locks in the same order.
+    @Query(value = "SELECT id FROM posts WHERE id = :postId FOR UPDATE", nativeQuery = true)
+    Long lockForCounters(@Param("postId") Long postId);
+
+    @Query(value = "SELECT id FROM posts WHERE id > :afterId ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockForCountersAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE posts p SET comment_count = c.total FROM (" +
+            "  SELECT p2.id, COUNT(c2.id) AS total FROM posts p2 " +
+            "  LEFT JOIN comments c2 ON c2.type = 'POST' AND c2.post_id = p2.id " +
+            "  WHERE p2.id BETWEEN :fromId AND :toId GROUP BY p2.id) c " +
+            "WHERE c.id = p.id AND p.comment_count <> c.total", nativeQuery = true)
+    int reconcileCommentCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_reaction_counts rc WHERE rc.post_id BETWEEN :fromId AND :toId AND NOT EXISTS (" +
+            "SELECT 1 FROM reactions r WHERE r.type = 'POST' AND r.post_id = rc.post_id AND r.emoji = rc.emoji)", nativeQuery = true)
+    int deleteStaleReactionCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query(value = "INSERT INTO post_reaction_counts (post_id, emoji, total) " +
+            "SELECT r.post_id, r.emoji, COUNT(*) FROM reactions r " +
+            "WHERE r.type = 'POST' AND r.post_id BETWEEN :fromId AND :toId GROUP BY r.post_id, r.emoji " +
+            "ON CONFLICT (post_id, emoji) DO UPDATE SET total = EXCLUDED.total " +
+            "WHERE post_reaction_counts.total <> EXCLUDED.total", nativeQuery = true)
+    int reconcileReactionCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
 
+    @Modifying
+    @Query(value = "UPDATE posts p SET engagement_score = s.total FROM (" +
+            "  SELECT p2.id, p2.comment_count + COALESCE(SUM(rc.total), 0) AS total FROM posts p2 " +
+            "  LEFT JOIN post_reaction_counts rc ON rc.post_id = p2.id " +
+            "  WHERE p2.id BETWEEN :fromId AND :toId GROUP BY p2.id, p2.comment_count) s " +
+            "WHERE s.id = p.id AND p.engagement_score <> s.total", nativeQuery = true)
+    int reconcileEngagementScores(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
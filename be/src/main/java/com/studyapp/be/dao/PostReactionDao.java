@@ -2,6 +2,7 @@ package com.studyapp.be.dao;
 
 import com.studyapp.be.dao.bases.BaseReactionDao;
 import com.studyapp.be.dto.response.ReactionSummaryDto;
+import com.studyapp.be.dto.response.UserReactionDto;
 import com.studyapp.be.entities.Post;
 import com.studyapp.be.entities.PostReaction;
 import com.studyapp.be.entities.User;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,4 +20,8 @@ public interface PostReactionDao extends BaseReactionDao<PostReaction, Long> {
     List<ReactionSummaryDto> getReactionSummaryByPost(@Param("post") Post post);
 
     boolean existsByPostAndCreator(Post post, User creator);
+
+    @Query("SELECT new com.studyapp.be.dto.response.UserReactionDto(r.post.id, r.id, r.emoji) " +
+            "FROM PostReaction r WHERE r.creator.id = :userId AND r.post.id IN :postIds")
+    List<UserReactionDto> findUserReactionsByPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
 }
@@ -0,0 +1,101 @@
+package com.studyapp.be.dao;
+
+import com.studyapp.be.entities.RoomSummary;
+import com.studyapp.be.enums.ChatRoomType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface RoomSummaryDao extends CrudRepository<RoomSummary, Long> {
+    @Query("SELECT s.roomId FROM RoomSummary s JOIN ChatRoom r ON r.id = s.roomId " +
+            "WHERE (:name IS NULL OR r.name = :name) " +
+            "  AND (:type IS NULL OR r.type = :type) " +
+            "  AND (:creatorId IS NULL OR r.creator.id = :creatorId) " +
+            "  AND (:createdAfter IS NULL OR r.createdAt >= :createdAfter)")
+    Page<Long> findRoomIdsByLastActivity(@Param("name") String name,
+                                         @Param("type") ChatRoomType type,
+                                         @Param("creatorId") Long creatorId,
+                                         @Param("createdAfter") LocalDateTime createdAfter,
+                                         Pageable pageable);
+
+    @Query("SELECT crm.chatRoom.id FROM ChatRoomMember crm JOIN crm.chatRoom r " +
+            "WHERE crm.user.id = :memberId " +
+            "  AND (:name IS NULL OR r.name = :name) " +
+            "  AND (:type IS NULL OR r.type = :type) " +
+            "  AND (:creatorId IS NULL OR r.creator.id = :creatorId) " +
+            "  AND (:createdAfter IS NULL OR r.createdAt >= :createdAfter)")
+    Page<Long> findMemberRoomIdsByLastActivity(@Param("memberId") Long memberId,
+                                               @Param("name") String name,
+                                               @Param("type") ChatRoomType type,
+                                               @Param("creatorId") Long creatorId,
+                                               @Param("createdAfter") LocalDateTime createdAfter,
+                                               Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO room_summaries (room_id, last_activity_at) VALUES (:roomId, :createdAt) " +
+            "ON CONFLICT (room_id) DO NOTHING", nativeQuery = true)
+    int createEmpty(@Param("roomId") Long roomId, @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO room_summaries (room_id, last_message_id, last_message_preview, last_sender_id, last_message_at, last_activity_at) " +
+            "SELECT m.room_id, m.id, left(m.content, 200), m.sender_id, m.created_at, m.created_at FROM message m WHERE m.id IN (:messageIds) " +
+            "ON CONFLICT (room_id) DO UPDATE SET last_message_id = EXCLUDED.last_message_id, " +
+            "last_message_preview = EXCLUDED.last_message_preview, last_sender_id = EXCLUDED.last_sender_id, " +
+            "last_message_at = EXCLUDED.last_message_at, " +
+            "last_activity_at = GREATEST(room_summaries.last_activity_at, EXCLUDED.last_activity_at) " +
+            "WHERE room_summaries.last_message_at IS NULL " +
+            "OR (EXCLUDED.last_message_at, EXCLUDED.last_message_id) > (room_summaries.last_message_at, room_summaries.last_message_id)", nativeQuery = true)
+    int recordMessages(@Param("messageIds") Collection<Long> messageIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE chat_room_member crm SET last_activity_at = s.last_activity_at FROM room_summaries s " +
+            "WHERE s.room_id = crm.chat_room_id AND s.room_id IN (SELECT m.room_id FROM message m WHERE m.id IN (:messageIds)) " +
+            "AND crm.last_activity_at IS DISTINCT FROM s.last_activity_at", nativeQuery = true)
+    int copyActivityToMembersOfMessages(@Param("messageIds") Collection<Long> messageIds);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE chat_room_member crm SET last_activity_at = s.last_activity_at FROM room_summaries s " +
+            "WHERE s.room_id = crm.chat_room_id AND s.room_id = :roomId", nativeQuery = true)
+    int copyActivityToMembers(@Param("roomId") Long roomId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE chat_room_member crm SET last_activity_at = s.last_activity_at FROM room_summaries s " +
+            "WHERE s.room_id = crm.chat_room_id AND crm.last_activity_at IS DISTINCT FROM s.last_activity_at", nativeQuery = true)
+    int backfillMemberActivity();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE room_summaries s SET last_message_id = m.id, last_message_preview = left(m.content, 200), " +
+            "last_sender_id = m.sender_id, last_message_at = m.created_at " +
+            "FROM (SELECT CAST(:roomId AS bigint) AS room_id) r " +
+            "LEFT JOIN LATERAL (SELECT id, content, sender_id, created_at FROM message " +
+            "  WHERE room_id = r.room_id AND is_deleted = false AND id <> :removedId " +
+            "  ORDER BY created_at DESC, id DESC LIMIT 1) m ON true " +
+            "WHERE s.room_id = r.room_id AND s.last_message_id = :removedId", nativeQuery = true)
+    int replaceRemovedMessage(@Param("roomId") Long roomId, @Param("removedId") Long removedId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO room_summaries (room_id, last_message_id, last_message_preview, last_sender_id, last_message_at, last_activity_at) " +
+            "SELECT r.id, m.id, left(m.content, 200), m.sender_id, m.created_at, COALESCE(m.created_at, r.created_at, now()) " +
+            "FROM chat_room r " +
+            "LEFT JOIN LATERAL (SELECT id, content, sender_id, created_at FROM message " +
+            "  WHERE room_id = r.id AND is_deleted = false ORDER BY created_at DESC, id DESC LIMIT 1) m ON true " +
+            "WHERE NOT EXISTS (SELECT 1 FROM room_summaries s WHERE s.room_id = r.id) " +
+            "ON CONFLICT (room_id) DO NOTHING", nativeQuery = true)
+    int backfillMissing();
+}
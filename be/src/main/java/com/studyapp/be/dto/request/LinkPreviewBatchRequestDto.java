@@ -0,0 +1,19 @@
+package com.studyapp.be.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@ToString
+public class LinkPreviewBatchRequestDto {
+    @NotEmpty(message = "Urls must not be empty")
+    @Size(max = 20, message = "At most 20 urls per request")
+    private List<String> urls;
+}
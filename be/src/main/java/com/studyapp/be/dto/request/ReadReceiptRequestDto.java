@@ -0,0 +1,15 @@
+package com.studyapp.be.dto.request;
+
+import com.studyapp.be.enums.MessageStatus;
+import lombok.*;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@ToString
+public class ReadReceiptRequestDto {
+    private Long messageId;
+    private MessageStatus status;
+}
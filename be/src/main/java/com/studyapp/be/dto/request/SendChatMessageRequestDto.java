@@ -0,0 +1,17 @@
+package com.studyapp.be.dto.request;
+
+import com.studyapp.be.enums.ReplyTargetType;
+import lombok.*;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@ToString
+public class SendChatMessageRequestDto {
+    private String clientMessageId;
+    private String content;
+    private Long repliedTargetId;
+    private ReplyTargetType repliedTargetType;
+}
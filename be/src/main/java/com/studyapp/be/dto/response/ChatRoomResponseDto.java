@@ -2,6 +2,7 @@ package com.studyapp.be.dto.response;
 
 import lombok.*;
 
+import java.time.LocalDateTime;
 import java.util.Set;
 
 @Builder
@@ -14,4 +15,10 @@ public class ChatRoomResponseDto {
     private String name;
     private UserLoginResponseDto.UserInfo creator;
     private Set<ChatRoomMemberResponseDto> members;
+    private Long lastMessageId;
+    private String lastMessagePreview;
+    private Long lastSenderId;
+    private LocalDateTime lastMessageAt;
+    private LocalDateTime lastActivityAt;
+    private long unreadCount;
 }
@@ -20,4 +20,5 @@ public class LinkPreviewDTO implements Serializable {
     private String domain;
     private String faviconUrl;
     private String siteName;
+    private String canonicalUrl;
 }
@@ -0,0 +1,15 @@
+package com.studyapp.be.dto.response;
+
+import com.studyapp.be.enums.LinkPreviewError;
+import lombok.*;
+
+@Builder
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+public class LinkPreviewResultDto {
+    private String url;
+    private LinkPreviewDTO preview;
+    private LinkPreviewError error;
+}
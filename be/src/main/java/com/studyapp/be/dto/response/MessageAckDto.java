@@ -0,0 +1,17 @@
+package com.studyapp.be.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+public class MessageAckDto {
+    private String clientMessageId;
+    private Long messageId;
+    private Long roomId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package com.studyapp.be.dto.response;
+
+import lombok.*;
+
+@Builder
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+public class MessageHighlightDto {
+    private Long messageId;
+    private String highlight;
+}
@@ -26,4 +26,7 @@ public class MessageResponseDto {
     private Object repliedTarget;
     private ReplyTargetType repliedTargetType;
     private List<AttachmentResponseDto> attachments;
+    private int pendingAttachments;
+    private int failedAttachments;
+    private String highlight;
 }
@@ -17,6 +17,8 @@ public class PostResponseDto {
     private UserLoginResponseDto.UserInfo creator;
     private String content;
     private Set<AttachmentResponseDto> attachments;
+    private int pendingAttachments;
+    private int failedAttachments;
     private List<ReactionSummaryDto> reactionSummary;
     private PostResponseDto sharedPost;
     private LocalDateTime createdAt;
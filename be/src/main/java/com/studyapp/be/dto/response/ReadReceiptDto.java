@@ -0,0 +1,15 @@
+package com.studyapp.be.dto.response;
+
+import lombok.*;
+
+@Builder
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+public class ReadReceiptDto {
+    private Long roomId;
+    private Long userId;
+    private Long lastDeliveredMessageId;
+    private Long lastReadMessageId;
+}
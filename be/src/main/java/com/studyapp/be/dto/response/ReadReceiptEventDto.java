@@ -0,0 +1,15 @@
+package com.studyapp.be.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+public class ReadReceiptEventDto {
+    private Long roomId;
+    private List<ReadReceiptDto> receipts;
+}
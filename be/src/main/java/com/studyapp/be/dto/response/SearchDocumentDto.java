@@ -0,0 +1,21 @@
+package com.studyapp.be.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+public class SearchDocumentDto {
+    private Long id;
+    private String content;
+    private LocalDateTime createdAt;
+    private Long scopeId;
+    private Long ownerId;
+
+    public SearchDocumentDto(Long id, String content, LocalDateTime createdAt, Long ownerId) {
+        this(id, content, createdAt, null, ownerId);
+    }
+}
@@ -0,0 +1,13 @@
+package com.studyapp.be.dto.response;
+
+import lombok.*;
+
+@Builder
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+public class UnreadCountDto {
+    private Long roomId;
+    private Long unreadCount;
+}
@@ -0,0 +1,14 @@
+package com.studyapp.be.dto.response;
+
+import lombok.*;
+
+@Builder
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+public class UserReactionDto {
+    private Long targetId;
+    private Long reactionId;
+    private String emoji;
+}
@@ -10,6 +10,9 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_chat_room_member_last_activity", columnList = "user_id, last_activity_at DESC, chat_room_id DESC"),
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +20,8 @@ import java.util.Set;
 @Setter
 public class ChatRoomMember {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_room_member_seq")
+    @SequenceGenerator(name = "chat_room_member_seq", sequenceName = "chat_room_member_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -38,4 +42,8 @@ public class ChatRoomMember {
     private Set<MemberRole> roles;
 
     private String nickname;
+
+    // Copy of the room summary's last activity, kept by RoomSummaryDao so a member's inbox is one index range.
+    @Column(name = "last_activity_at", insertable = false, updatable = false)
+    private LocalDateTime lastActivityAt;
 }
@@ -0,0 +1,42 @@
+package com.studyapp.be.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "feed_entries",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "post_id"}),
+        indexes = {
+                @Index(name = "idx_feed_entry_ranking", columnList = "user_id, tier, score DESC, post_created_at DESC"),
+                @Index(name = "idx_feed_entry_post_id", columnList = "post_id"),
+        })
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class FeedEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(nullable = false)
+    private Long authorId;
+
+    @Column(nullable = false)
+    private int tier;
+
+    @Column(nullable = false)
+    private long score;
+
+    @Column(name = "post_created_at")
+    private LocalDateTime postCreatedAt;
+}
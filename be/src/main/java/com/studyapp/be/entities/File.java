@@ -14,7 +14,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "files")
+@Table(name = "files", indexes = @Index(name = "idx_file_content_hash", columnList = "content_hash"))
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
 public class File {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "files_seq")
+    @SequenceGenerator(name = "files_seq", sequenceName = "files_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -41,6 +42,9 @@ public class File {
     @Column(nullable = false)
     private Long size;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @ManyToOne
     @JoinColumn(nullable = false)
     @JsonBackReference
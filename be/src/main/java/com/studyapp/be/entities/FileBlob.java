@@ -0,0 +1,39 @@
+package com.studyapp.be.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "file_blobs",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"content_hash", "type"}))
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class FileBlob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false)
+    private String fileCloudId;
+
+    @Column(nullable = false)
+    private String path;
+
+    @Column(nullable = false)
+    private long refCount;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class FriendShip {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "friendships_seq")
+    @SequenceGenerator(name = "friendships_seq", sequenceName = "friendships_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
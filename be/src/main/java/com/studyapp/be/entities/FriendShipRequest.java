@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class FriendShipRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "friendship_requests_seq")
+    @SequenceGenerator(name = "friendship_requests_seq", sequenceName = "friendship_requests_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -1,10 +1,13 @@
 package com.studyapp.be.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.studyapp.be.entities.bases.PendingAttachments;
 import com.studyapp.be.enums.MessageStatus;
 import com.studyapp.be.enums.ReplyTargetType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -20,16 +23,20 @@ import java.util.Set;
 @Setter
 @Table(indexes = {
         @Index(name = "idx_replied_target_id", columnList = "repliedTargetId"),
+        @Index(name = "idx_message_room_created_at_id", columnList = "room_id, createdAt, id"),
+        @Index(name = "idx_message_pending_attachments", columnList = "pending_attachments"),
 })
 @ToString
-public class Message {
+public class Message implements PendingAttachments {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq")
+    @SequenceGenerator(name = "message_seq", sequenceName = "message_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     @JsonIgnore
+    @ToString.Exclude
     private ChatRoom room;
 
     @ManyToOne
@@ -44,9 +51,19 @@ public class Message {
     @Column(columnDefinition = "TEXT")
     private String content;
 
-    @OneToMany(mappedBy = "message", fetch = FetchType.EAGER, orphanRemoval = true, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "message", orphanRemoval = true, cascade = CascadeType.ALL)
+    @BatchSize(size = 50)
+    @ToString.Exclude
     private List<MessageAttachment> attachments;
 
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int pendingAttachments;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int failedAttachments;
+
     @Column(nullable = false)
     private Boolean isDeleted;
 
@@ -54,7 +71,9 @@ public class Message {
     @Column(nullable = false)
     private MessageStatus status;
 
-    @OneToMany(mappedBy = "message", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "message", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @ToString.Exclude
     private Set<MessageReaction> reactions;
 
     private Long repliedTargetId;
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.studyapp.be.entities.bases.Attachment;
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.BatchSize;
 import lombok.Setter;
 
 import java.util.Set;
@@ -18,6 +19,7 @@ public class MessageAttachment extends Attachment {
     @JsonIgnore
     private Message message;
 
-    @OneToMany(mappedBy = "attachment", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "attachment", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<MessageAttachmentReaction> reactions;
 }
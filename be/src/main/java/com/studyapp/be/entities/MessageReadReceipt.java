@@ -0,0 +1,40 @@
+package com.studyapp.be.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "message_read_receipts",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"room_id", "user_id"}))
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class MessageReadReceipt {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    private ChatRoom room;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    private Long lastDeliveredMessageId;
+
+    private LocalDateTime lastDeliveredAt;
+
+    private Long lastReadMessageId;
+
+    private LocalDateTime lastReadAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -1,24 +1,32 @@
 package com.studyapp.be.entities;
 
+import com.studyapp.be.entities.bases.PendingAttachments;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Set;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_post_engagement", columnList = "engagement_score DESC, created_at DESC"),
+        @Index(name = "idx_post_pending_attachments", columnList = "pending_attachments"),
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
-public class Post {
+public class Post implements PendingAttachments {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_seq")
+    @SequenceGenerator(name = "posts_seq", sequenceName = "posts_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -31,6 +39,14 @@ public class Post {
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<PostAttachment> attachments;
 
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int pendingAttachments;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int failedAttachments;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<PostReaction> reactions;
 
@@ -40,6 +56,23 @@ public class Post {
     @ManyToOne
     private Post sharedPost;
 
+    // Counters are only changed by atomic SQL increments (PostCounterService); saving the entity must not overwrite them.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long commentCount;
+
+    @ColumnDefault("0")
+    @Column(name = "engagement_score", nullable = false, updatable = false)
+    private long engagementScore;
+
+    @ElementCollection
+    @CollectionTable(name = "post_reaction_counts", joinColumns = @JoinColumn(name = "post_id"),
+            uniqueConstraints = @UniqueConstraint(columnNames = {"post_id", "emoji"}))
+    @MapKeyColumn(name = "emoji")
+    @Column(name = "total", nullable = false)
+    @BatchSize(size = 50)
+    private Map<String, Long> reactionCounts;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
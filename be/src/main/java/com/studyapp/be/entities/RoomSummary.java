@@ -0,0 +1,33 @@
+package com.studyapp.be.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "room_summaries", indexes = {
+        @Index(name = "idx_room_summary_last_activity", columnList = "last_activity_at DESC, room_id DESC"),
+})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class RoomSummary {
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    private Long lastMessageId;
+
+    @Column(length = 200)
+    private String lastMessagePreview;
+
+    private Long lastSenderId;
+
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_activity_at", nullable = false)
+    private LocalDateTime lastActivityAt;
+}
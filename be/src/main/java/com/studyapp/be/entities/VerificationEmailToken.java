@@ -18,7 +18,8 @@ public class VerificationEmailToken {
     private static final int EXPIRATION_MINUTES = 60 * 24;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "verification_email_tokens_seq")
+    @SequenceGenerator(name = "verification_email_tokens_seq", sequenceName = "verification_email_tokens_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
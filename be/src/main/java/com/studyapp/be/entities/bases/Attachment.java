@@ -13,7 +13,8 @@ import lombok.Setter;
 @Table(name = "attachments")
 public abstract class Attachment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attachments_seq")
+    @SequenceGenerator(name = "attachments_seq", sequenceName = "attachments_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne
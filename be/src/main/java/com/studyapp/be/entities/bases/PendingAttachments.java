@@ -0,0 +1,21 @@
+package com.studyapp.be.entities.bases;
+
+public interface PendingAttachments {
+    int getPendingAttachments();
+
+    void setPendingAttachments(int pendingAttachments);
+
+    int getFailedAttachments();
+
+    void setFailedAttachments(int failedAttachments);
+
+    // Returns false when there is nothing to settle. Also correct when the sweep already marked everything failed and a slow upload finishes afterwards.
+    default boolean settleAttachments(int uploaded) {
+        if (uploaded == 0 && getPendingAttachments() == 0) {
+            return false;
+        }
+        setFailedAttachments(Math.max(0, getPendingAttachments() + getFailedAttachments() - uploaded));
+        setPendingAttachments(0);
+        return true;
+    }
+}
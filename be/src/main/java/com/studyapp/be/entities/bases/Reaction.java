@@ -14,10 +14,13 @@ import java.time.LocalDateTime;
 @DiscriminatorColumn(name = "type", discriminatorType = DiscriminatorType.STRING)
 @Getter
 @Setter
-@Table(name = "reactions")
+@Table(name = "reactions", indexes = {
+        @Index(name = "idx_reaction_creator_id", columnList = "creator_id"),
+})
 public abstract class Reaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reactions_seq")
+    @SequenceGenerator(name = "reactions_seq", sequenceName = "reactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
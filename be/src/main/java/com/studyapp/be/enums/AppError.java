@@ -30,6 +30,7 @@ public enum AppError {
     MESSAGE_NOT_FOUND("The requested message was not found", HttpStatus.NOT_FOUND),
     MESSAGE_SEND_FAILED("Failed to send the message", HttpStatus.BAD_REQUEST),
     MESSAGE_EMPTY_CONTENT("Message content cannot be empty", HttpStatus.BAD_REQUEST),
+    MESSAGE_INVALID_RECEIPT("A receipt needs a message id and a DELIVERED or READ status", HttpStatus.BAD_REQUEST),
 
     // Chat Room Errors
     CHATROOM_ALREADY_EXISTS("The chat room is already exist", HttpStatus.CONFLICT),
@@ -51,6 +52,7 @@ public enum AppError {
     //File Errors
     FILE_NOT_FOUND("The file was not found", HttpStatus.NOT_FOUND),
     FILE_UPLOAD_FAILED("The file was upload failed", HttpStatus.INTERNAL_SERVER_ERROR),
+    FILE_UPLOAD_BUSY("Too many uploads in progress, please try again later", HttpStatus.SERVICE_UNAVAILABLE),
 
     //Friendship request Errors
     FRIEND_REQUEST_NOT_FOUND("The friend request not founded", HttpStatus.NOT_FOUND),
@@ -62,6 +64,8 @@ public enum AppError {
     // General Errors
     INTERNAL_SERVER_ERROR("An unexpected error occurred on the server", HttpStatus.INTERNAL_SERVER_ERROR),
     BAD_REQUEST("The request could not be understood or was missing required parameters", HttpStatus.BAD_REQUEST),
+    INVALID_CURSOR("The pagination cursor is invalid", HttpStatus.BAD_REQUEST),
+    INVALID_PAGE_SIZE("The page size must be between 1 and 100", HttpStatus.BAD_REQUEST),
 
 
     //FCM token Errors
@@ -0,0 +1,15 @@
+package com.studyapp.be.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// The rank is what feed_entries.tier stores; lower ranks are shown first.
+@Getter
+@AllArgsConstructor
+public enum FeedTier {
+    SELF(0),
+    FRIEND(1),
+    OTHER(2);
+
+    private final int rank;
+}
@@ -0,0 +1,5 @@
+package com.studyapp.be.enums;
+
+public enum LinkPreviewError {
+    INVALID_URL, BUSY, FETCH_FAILED
+}
@@ -0,0 +1,5 @@
+package com.studyapp.be.enums;
+
+public enum MessageSearchMode {
+    CONTAINS, FULL_TEXT
+}
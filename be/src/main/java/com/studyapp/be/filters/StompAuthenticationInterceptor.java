@@ -0,0 +1,56 @@
+package com.studyapp.be.filters;
+
+import com.studyapp.be.dto.response.CustomUserDetails;
+import com.studyapp.be.entities.User;
+import com.studyapp.be.enums.AppError;
+import com.studyapp.be.exceptions.AppException;
+import com.studyapp.be.services.CustomUserDetailsService;
+import com.studyapp.be.services.JwtTokenProvider;
+import com.studyapp.be.services.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+    private final JwtTokenProvider jwtTokenProvider;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${app.jwt.stateless:true}")
+    private boolean stateless;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String bearerToken = accessor.getFirstNativeHeader("Authorization");
+        if (!StringUtils.hasText(bearerToken) || !bearerToken.startsWith("Bearer ")) {
+            return message;
+        }
+        Claims claims = jwtTokenProvider.parseToken(bearerToken.substring(7));
+        CustomUserDetails userDetails = stateless ? jwtTokenProvider.toUserDetails(claims) : null;
+        if (userDetails == null) {
+            User user = customUserDetailsService.loadUserEntityByUsername(claims.getSubject());
+            userDetails = customUserDetailsService.toUserDetails(user);
+        }
+        if (tokenRevocationService.isRevoked(claims)) {
+            throw new AppException(AppError.AUTH_TOKEN_INVALID);
+        }
+        accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        return message;
+    }
+}
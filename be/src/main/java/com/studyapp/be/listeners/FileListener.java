@@ -20,7 +20,7 @@ public class FileListener implements ApplicationEventPublisherAware {
     @PreRemove
     public void preRemove(File file) {
         if (publisher != null) {
-            publisher.publishEvent(file.getId());
+            publisher.publishEvent(file);
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.studyapp.be.listeners;
 
+import com.studyapp.be.entities.File;
 import com.studyapp.be.services.FileService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
@@ -12,8 +13,8 @@ public class FilePreRemoveEventListener {
     private final FileService fileService;
     
     @EventListener
-    public void handleFilePreRemoveEvent(Long fileId) {
-        fileService.delete(fileId);
+    public void handleFilePreRemoveEvent(File file) {
+        fileService.release(file);
     }
 }
 
@@ -0,0 +1,93 @@
+package com.studyapp.be.listeners;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.websocket.broker", havingValue = "redis")
+public class RedisBrokerBridge implements ChannelInterceptor, MessageListener {
+    private static final String RELAYED_HEADER = "relayedByRedis";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+
+    @Getter
+    @Value("${app.websocket.redis.channel:websocket-broadcast}")
+    private String channel;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel messageChannel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || accessor.getHeader(RELAYED_HEADER) != null
+                || accessor.getDestination() == null
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        MimeType contentType = accessor.getContentType();
+        try {
+            BrokerEnvelope envelope = new BrokerEnvelope(nodeId, accessor.getDestination(), contentType != null ? contentType.toString() : null, payload);
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(envelope));
+        } catch (Exception exception) {
+            log.error("Publish websocket message to redis error: {}", exception.getLocalizedMessage());
+        }
+        return message;
+    }
+
+    @Override
+    public void onMessage(@NonNull org.springframework.data.redis.connection.Message message, byte[] pattern) {
+        try {
+            BrokerEnvelope envelope = objectMapper.readValue(message.getBody(), BrokerEnvelope.class);
+            if (nodeId.equals(envelope.getNodeId())) {
+                return;
+            }
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(envelope.getDestination());
+            if (envelope.getContentType() != null) {
+                accessor.setContentType(MimeType.valueOf(envelope.getContentType()));
+            }
+            accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+            accessor.setLeaveMutable(true);
+            messagingTemplate.getObject().send(MessageBuilder.createMessage(envelope.getPayload(), accessor.getMessageHeaders()));
+        } catch (Exception exception) {
+            log.error("Deliver websocket message from redis error: {}", exception.getLocalizedMessage());
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BrokerEnvelope {
+        private String nodeId;
+        private String destination;
+        private String contentType;
+        private byte[] payload;
+    }
+}
@@ -2,11 +2,29 @@ package com.studyapp.be.mappers;
 
 import com.studyapp.be.dto.request.CreatePostRequestDto;
 import com.studyapp.be.dto.response.PostResponseDto;
+import com.studyapp.be.dto.response.ReactionSummaryDto;
 import com.studyapp.be.entities.Post;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 
 @Mapper(componentModel = "spring")
 public interface PostMapper {
+    @Mapping(target = "totalComments", source = "commentCount")
+    @Mapping(target = "reactionSummary", source = "reactionCounts")
     PostResponseDto entityToDto(Post post);
+
     Post dtoToEntity(CreatePostRequestDto dto);
+
+    default List<ReactionSummaryDto> reactionCountsToSummary(Map<String, Long> reactionCounts) {
+        if (reactionCounts == null) return List.of();
+        return reactionCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() != null && entry.getValue() > 0)
+                .map(entry -> new ReactionSummaryDto(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(ReactionSummaryDto::getCount).reversed())
+                .toList();
+    }
 }
@@ -0,0 +1,201 @@
+package com.studyapp.be.search;
+
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Immutable, memory-mapped segment file.
+ * <pre>
+ * header:     int magic, int version, long checkpoint, int docCount
+ * postings:   long[] ids per term, ascending
+ * dictionary: per term (sorted): short length, utf-8 bytes, int count, long offset
+ * footer:     long dictionaryOffset, int termCount
+ * </pre>
+ * The term dictionary is read onto the heap; posting lists stay in the mapping and are paged in by the OS.
+ */
+public class IndexSegment {
+    static final String DOCUMENTS_TERM = "#doc";
+
+    private static final int MAGIC = 0x53494458;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int FOOTER_BYTES = 8 + 4;
+    private static final long[] EMPTY = new long[0];
+
+    @Getter
+    private final Path path;
+    @Getter
+    private final long checkpoint;
+    @Getter
+    private final int docCount;
+    private final MappedByteBuffer buffer;
+    private final String[] terms;
+    private final int[] counts;
+    private final long[] offsets;
+
+    private IndexSegment(Path path, long checkpoint, int docCount, MappedByteBuffer buffer, String[] terms, int[] counts, long[] offsets) {
+        this.path = path;
+        this.checkpoint = checkpoint;
+        this.docCount = docCount;
+        this.buffer = buffer;
+        this.terms = terms;
+        this.counts = counts;
+        this.offsets = offsets;
+    }
+
+    public static IndexSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid segment size " + size + " for " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a segment file: " + path);
+            }
+            long checkpoint = buffer.getLong(8);
+            int docCount = buffer.getInt(16);
+            int dictionaryOffset = (int) buffer.getLong((int) size - FOOTER_BYTES);
+            int termCount = buffer.getInt((int) size - 4);
+
+            String[] terms = new String[termCount];
+            int[] counts = new int[termCount];
+            long[] offsets = new long[termCount];
+            ByteBuffer dictionary = buffer.duplicate().position(dictionaryOffset);
+            for (int i = 0; i < termCount; i++) {
+                byte[] bytes = new byte[dictionary.getShort() & 0xFFFF];
+                dictionary.get(bytes);
+                terms[i] = new String(bytes, StandardCharsets.UTF_8);
+                counts[i] = dictionary.getInt();
+                offsets[i] = dictionary.getLong();
+            }
+            return new IndexSegment(path, checkpoint, docCount, buffer, terms, counts, offsets);
+        }
+    }
+
+    /**
+     * Writes the postings (terms in ascending order, ids ascending) to a temp file and moves it into place.
+     */
+    public static IndexSegment write(Path path, long checkpoint, Iterator<Map.Entry<String, long[]>> postings) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int docCount = 0;
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checkpoint);
+            out.writeInt(0);
+
+            ByteArrayDictionary dictionary = new ByteArrayDictionary();
+            long offset = HEADER_BYTES;
+            while (postings.hasNext()) {
+                Map.Entry<String, long[]> entry = postings.next();
+                long[] ids = entry.getValue();
+                if (ids.length == 0) {
+                    continue;
+                }
+                if (DOCUMENTS_TERM.equals(entry.getKey())) {
+                    docCount = ids.length;
+                }
+                for (long id : ids) {
+                    out.writeLong(id);
+                }
+                dictionary.add(entry.getKey(), ids.length, offset);
+                offset += (long) ids.length * Long.BYTES;
+            }
+            dictionary.writeTo(out);
+            out.writeLong(offset);
+            out.writeInt(dictionary.size);
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, docCount), 16);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return open(path);
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    public String term(int index) {
+        return terms[index];
+    }
+
+    public long[] postings(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index < 0 ? EMPTY : postingsAt(index);
+    }
+
+    public long[] postingsAt(int index) {
+        long[] ids = new long[counts[index]];
+        int base = (int) offsets[index];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.getLong(base + i * Long.BYTES);
+        }
+        return ids;
+    }
+
+    public boolean contains(long id) {
+        int index = Arrays.binarySearch(terms, DOCUMENTS_TERM);
+        if (index < 0) {
+            return false;
+        }
+        int base = (int) offsets[index];
+        int low = 0;
+        int high = counts[index] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = buffer.getLong(base + mid * Long.BYTES);
+            if (value < id) {
+                low = mid + 1;
+            } else if (value > id) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    private static class ByteArrayDictionary {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int size;
+
+        void add(String term, int count, long offset) throws IOException {
+            byte[] encoded = term.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(encoded.length);
+            out.write(encoded);
+            out.writeInt(count);
+            out.writeLong(offset);
+            size++;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            out.flush();
+            bytes.writeTo(target);
+        }
+    }
+}
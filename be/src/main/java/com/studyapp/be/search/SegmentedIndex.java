@@ -0,0 +1,410 @@
+package com.studyapp.be.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Log-structured inverted index: new documents go to an in-memory table, which is flushed into immutable
+ * segment files; small segments are merged in the background. Deletes are tombstones until a merge drops them.
+ */
+@Slf4j
+public class SegmentedIndex {
+    private static final String SEGMENT_SUFFIX = ".sidx";
+    private static final String TOMBSTONES_FILE = "tombstones";
+    private static final long[] EMPTY = new long[0];
+
+    private final Path directory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object maintenanceLock = new Object();
+    private final AtomicLong segmentCounter = new AtomicLong();
+    private final Set<Long> tombstones = ConcurrentHashMap.newKeySet();
+
+    private TreeMap<String, TreeSet<Long>> memtable = new TreeMap<>();
+    private TreeMap<String, TreeSet<Long>> flushing;
+    private long memtableCheckpoint;
+    private List<IndexSegment> segments = List.of();
+    private FileChannel tombstoneLog;
+
+    public SegmentedIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<IndexSegment> opened = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    segmentCounter.accumulateAndGet(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), Math::max);
+                    try {
+                        opened.add(IndexSegment.open(file));
+                    } catch (IOException exception) {
+                        log.warn("Skip unreadable segment {}: {}", file, exception.getLocalizedMessage());
+                    }
+                }
+            }
+        }
+        segments = List.copyOf(opened);
+
+        Path tombstonePath = directory.resolve(TOMBSTONES_FILE);
+        if (Files.exists(tombstonePath)) {
+            ByteBuffer ids = ByteBuffer.wrap(Files.readAllBytes(tombstonePath));
+            while (ids.remaining() >= Long.BYTES) {
+                tombstones.add(ids.getLong());
+            }
+        }
+        tombstoneLog = FileChannel.open(tombstonePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public void close() throws IOException {
+        flush();
+        tombstoneLog.close();
+    }
+
+    public boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            return segments.isEmpty() && memtable.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Newest document time that is safely on disk; documents after it may have been lost with the memtable.
+    public long checkpoint() {
+        return segments.stream().mapToLong(IndexSegment::getCheckpoint).max().orElse(0);
+    }
+
+    public int memtableSize() {
+        lock.readLock().lock();
+        try {
+            TreeSet<Long> documents = memtable.get(IndexSegment.DOCUMENTS_TERM);
+            return documents == null ? 0 : documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public void add(long id, Collection<String> terms, long timestamp) {
+        lock.writeLock().lock();
+        try {
+            memtable.computeIfAbsent(IndexSegment.DOCUMENTS_TERM, term -> new TreeSet<>()).add(id);
+            for (String term : terms) {
+                memtable.computeIfAbsent(term, key -> new TreeSet<>()).add(id);
+            }
+            memtableCheckpoint = Math.max(memtableCheckpoint, timestamp);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (tombstones.add(id)) {
+                ByteBuffer entry = ByteBuffer.allocate(Long.BYTES).putLong(0, id);
+                while (entry.hasRemaining()) {
+                    tombstoneLog.write(entry);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ids containing every term, highest ids first.
+     */
+    public List<Long> search(Collection<String> terms, int limit) {
+        long[] result = null;
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                long[] postings = collect(term);
+                result = result == null ? postings : intersect(result, postings);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (result == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(Math.min(limit, result.length));
+        for (int i = result.length - 1; i >= 0 && ids.size() < limit; i--) {
+            if (!tombstones.contains(result[i])) {
+                ids.add(result[i]);
+            }
+        }
+        return ids;
+    }
+
+    public void flush() throws IOException {
+        synchronized (maintenanceLock) {
+            long checkpoint;
+            lock.writeLock().lock();
+            try {
+                if (memtable.isEmpty()) {
+                    return;
+                }
+                flushing = memtable;
+                checkpoint = memtableCheckpoint;
+                memtable = new TreeMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            IndexSegment segment;
+            try {
+                Iterator<Map.Entry<String, long[]>> postings = flushing.entrySet().stream()
+                        .map(entry -> (Map.Entry<String, long[]>) new AbstractMap.SimpleEntry<>(entry.getKey(),
+                                entry.getValue().stream().mapToLong(Long::longValue).toArray()))
+                        .iterator();
+                segment = IndexSegment.write(nextSegmentPath(), checkpoint, postings);
+            } catch (IOException | RuntimeException exception) {
+                restoreFlushing();
+                throw exception;
+            }
+            lock.writeLock().lock();
+            try {
+                segments = append(segments, segment);
+                flushing = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Merges the {@code mergeFactor} smallest segments once there are at least that many.
+     */
+    public void merge(int mergeFactor) throws IOException {
+        synchronized (maintenanceLock) {
+            List<IndexSegment> current = segments;
+            if (current.size() < Math.max(2, mergeFactor)) {
+                return;
+            }
+            List<IndexSegment> merging = current.stream()
+                    .sorted(Comparator.comparingLong(IndexSegment::sizeInBytes))
+                    .limit(mergeFactor)
+                    .toList();
+            Set<Long> deleted = new HashSet<>(tombstones);
+            long checkpoint = merging.stream().mapToLong(IndexSegment::getCheckpoint).max().orElse(0);
+            IndexSegment merged = IndexSegment.write(nextSegmentPath(), checkpoint, new MergeIterator(merging, deleted));
+
+            lock.writeLock().lock();
+            try {
+                List<IndexSegment> remaining = new ArrayList<>(segments);
+                remaining.removeAll(merging);
+                remaining.add(merged);
+                segments = List.copyOf(remaining);
+                dropResolvedTombstones(deleted);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            for (IndexSegment segment : merging) {
+                Files.deleteIfExists(segment.getPath());
+            }
+            log.info("Merged {} segments into {} ({} documents)", merging.size(), merged.getPath().getFileName(), merged.getDocCount());
+        }
+    }
+
+    private void restoreFlushing() {
+        lock.writeLock().lock();
+        try {
+            flushing.forEach((term, ids) -> memtable.computeIfAbsent(term, key -> new TreeSet<>()).addAll(ids));
+            flushing = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock.
+    private void dropResolvedTombstones(Set<Long> candidates) throws IOException {
+        boolean changed = false;
+        for (Long id : candidates) {
+            if (segments.stream().noneMatch(segment -> segment.contains(id)) && !inMemory(memtable, id)) {
+                changed |= tombstones.remove(id);
+            }
+        }
+        if (changed) {
+            ByteBuffer ids = ByteBuffer.allocate(tombstones.size() * Long.BYTES);
+            tombstones.forEach(ids::putLong);
+            ids.flip();
+            tombstoneLog.truncate(0);
+            while (ids.hasRemaining()) {
+                tombstoneLog.write(ids);
+            }
+        }
+    }
+
+    private boolean inMemory(TreeMap<String, TreeSet<Long>> table, long id) {
+        TreeSet<Long> documents = table.get(IndexSegment.DOCUMENTS_TERM);
+        return documents != null && documents.contains(id);
+    }
+
+    // Caller holds the read lock.
+    private long[] collect(String term) {
+        List<long[]> parts = new ArrayList<>();
+        addPostings(parts, memtable.get(term));
+        if (flushing != null) {
+            addPostings(parts, flushing.get(term));
+        }
+        for (IndexSegment segment : segments) {
+            long[] postings = segment.postings(term);
+            if (postings.length > 0) {
+                parts.add(postings);
+            }
+        }
+        return union(parts);
+    }
+
+    private void addPostings(List<long[]> parts, TreeSet<Long> ids) {
+        if (ids != null && !ids.isEmpty()) {
+            parts.add(ids.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    private Path nextSegmentPath() {
+        return directory.resolve(String.format("%019d%s", segmentCounter.incrementAndGet(), SEGMENT_SUFFIX));
+    }
+
+    private static List<IndexSegment> append(List<IndexSegment> list, IndexSegment segment) {
+        List<IndexSegment> copy = new ArrayList<>(list);
+        copy.add(segment);
+        return List.copyOf(copy);
+    }
+
+    static long[] union(List<long[]> parts) {
+        if (parts.isEmpty()) {
+            return EMPTY;
+        }
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        long[] all = new long[parts.stream().mapToInt(part -> part.length).sum()];
+        int position = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, position, part.length);
+            position += part.length;
+        }
+        Arrays.sort(all);
+        int size = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (size == 0 || all[size - 1] != all[i]) {
+                all[size++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, size);
+    }
+
+    static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * K-way merge over the sorted term dictionaries, dropping tombstoned ids.
+     */
+    private static class MergeIterator implements Iterator<Map.Entry<String, long[]>> {
+        private final List<IndexSegment> segments;
+        private final Set<Long> deleted;
+        private final PriorityQueue<int[]> cursors;
+        private Map.Entry<String, long[]> next;
+
+        MergeIterator(List<IndexSegment> segments, Set<Long> deleted) {
+            this.segments = segments;
+            this.deleted = deleted;
+            this.cursors = new PriorityQueue<>(Comparator.comparing((int[] cursor) -> segments.get(cursor[0]).term(cursor[1])));
+            for (int i = 0; i < segments.size(); i++) {
+                if (segments.get(i).termCount() > 0) {
+                    cursors.add(new int[]{i, 0});
+                }
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, long[]> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, long[]> current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && !cursors.isEmpty()) {
+                String term = segments.get(cursors.peek()[0]).term(cursors.peek()[1]);
+                List<long[]> parts = new ArrayList<>();
+                while (!cursors.isEmpty() && segments.get(cursors.peek()[0]).term(cursors.peek()[1]).equals(term)) {
+                    int[] cursor = cursors.poll();
+                    IndexSegment segment = segments.get(cursor[0]);
+                    parts.add(segment.postingsAt(cursor[1]));
+                    if (++cursor[1] < segment.termCount()) {
+                        cursors.add(cursor);
+                    }
+                }
+                long[] ids = union(parts);
+                if (!deleted.isEmpty()) {
+                    ids = Arrays.stream(ids).filter(id -> !deleted.contains(id)).toArray();
+                }
+                if (ids.length > 0) {
+                    next = new AbstractMap.SimpleEntry<>(term, ids);
+                }
+            }
+        }
+    }
+}
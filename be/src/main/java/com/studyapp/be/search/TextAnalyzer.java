@@ -0,0 +1,84 @@
+package com.studyapp.be.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class TextAnalyzer {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private TextAnalyzer() {
+    }
+
+    // "Đường phố" and "duong pho" fold to the same terms, so users can search without typing diacritics.
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase();
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && isWordChar(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public static Set<String> terms(String text) {
+        return new LinkedHashSet<>(tokenize(text));
+    }
+
+    // Returns HTML: the text is escaped and only the <mark> tags around matched words are markup.
+    public static String highlight(String text, Set<String> terms) {
+        if (text == null || terms.isEmpty()) {
+            return null;
+        }
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        boolean matched = false;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i);
+                if (terms.contains(fold(word))) {
+                    result.append("<mark>").append(HtmlUtils.htmlEscape(word)).append("</mark>");
+                    matched = true;
+                } else {
+                    result.append(HtmlUtils.htmlEscape(word));
+                }
+                start = -1;
+            }
+            if (!wordChar && i < text.length()) {
+                result.append(HtmlUtils.htmlEscape(String.valueOf(text.charAt(i))));
+            }
+        }
+        return matched ? result.toString() : null;
+    }
+
+    private static boolean isWordChar(char c) {
+        int type = Character.getType(c);
+        return Character.isLetterOrDigit(c) || type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+}
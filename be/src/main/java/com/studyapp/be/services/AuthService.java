@@ -28,6 +28,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final VerificationEmailTokenDao verificationEmailTokenDao;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
 
     public UserLoginResponseDto login(UserLoginRequestDto userLoginRequestDto) {
         User user = userDao.findByEmail(userLoginRequestDto.getEmail()).orElseThrow(() -> new AppException(AppError.AUTH_INVALID_CREDENTIALS));
@@ -35,7 +36,12 @@ public class AuthService {
             throw new AppException(AppError.AUTH_INVALID_CREDENTIALS);
         }
         UserLoginResponseDto.UserInfo userInfo = userMapper.entityToDto(user);
-        return UserLoginResponseDto.builder().user(userInfo).accessToken(jwtTokenProvider.generateToken(userInfo.getEmail())).build();
+        return UserLoginResponseDto.builder().user(userInfo).accessToken(jwtTokenProvider.generateToken(user)).build();
+    }
+
+    public void logout(String token) {
+        if (!StringUtils.hasText(token)) return;
+        tokenRevocationService.revokeToken(jwtTokenProvider.parseToken(token));
     }
 
     @Transactional
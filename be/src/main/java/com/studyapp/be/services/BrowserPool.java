@@ -0,0 +1,181 @@
+package com.studyapp.be.services;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.PlaywrightException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Keeps a fixed number of headless Chromium processes alive and lends them out one request at a time.
+ * Playwright objects are not thread-safe, so a browser is only ever used by the thread that checked it out.
+ */
+@Slf4j
+@Component
+public class BrowserPool {
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final BrowserType.LaunchOptions LAUNCH_OPTIONS = new BrowserType.LaunchOptions()
+            .setHeadless(true)
+            .setArgs(List.of(
+                    "--no-sandbox",
+                    "--disable-dev-shm-usage",
+                    "--disable-blink-features=AutomationControlled",
+                    "--disable-infobars"));
+
+    @Value("${link-preview.browser-pool.size:2}")
+    private int size;
+
+    @Value("${link-preview.browser-pool.max-pages-per-browser:100}")
+    private int maxPagesPerBrowser;
+
+    @Value("${link-preview.browser-pool.max-waiting:20}")
+    private int maxWaiting;
+
+    @Value("${link-preview.browser-pool.acquire-timeout-ms:5000}")
+    private long acquireTimeoutMs;
+
+    private final BlockingQueue<PooledBrowser> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger launched = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Runs {@code work} in a fresh context of a pooled browser; the context is closed afterwards.
+     * Throws {@link PlaywrightException} when no browser becomes available in time.
+     */
+    public <T> T withContext(Browser.NewContextOptions options, Function<BrowserContext, T> work) {
+        PooledBrowser browser = acquire();
+        try (BrowserContext context = browser.browser.newContext(options)) {
+            return work.apply(context);
+        } finally {
+            release(browser);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${link-preview.browser-pool.health-check-interval-ms:60000}")
+    public void checkHealth() {
+        List<PooledBrowser> browsers = new ArrayList<>();
+        idle.drainTo(browsers);
+        for (PooledBrowser browser : browsers) {
+            if (browser.browser.isConnected()) {
+                idle.offer(browser);
+            } else {
+                log.warn("Discard disconnected browser after {} pages", browser.pages);
+                discard(browser);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closed = true;
+        PooledBrowser browser;
+        while ((browser = idle.poll()) != null) {
+            discard(browser);
+        }
+    }
+
+    private PooledBrowser acquire() {
+        if (closed) {
+            throw new PlaywrightException("Browser pool is closed");
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw new PlaywrightException("Too many requests waiting for a browser");
+        }
+        try {
+            long deadline = System.currentTimeMillis() + acquireTimeoutMs;
+            while (true) {
+                PooledBrowser browser = idle.poll();
+                if (browser == null) {
+                    browser = launchIfBelowLimit();
+                }
+                if (browser == null) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new PlaywrightException("Timed out waiting for a browser");
+                    }
+                    // Short polls so a slot freed by recycling is noticed and relaunched.
+                    browser = idle.poll(Math.min(remaining, POLL_INTERVAL_MS), TimeUnit.MILLISECONDS);
+                }
+                if (browser != null) {
+                    if (browser.browser.isConnected()) {
+                        return browser;
+                    }
+                    discard(browser);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new PlaywrightException("Interrupted while waiting for a browser");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void release(PooledBrowser browser) {
+        browser.pages++;
+        if (closed || browser.pages >= maxPagesPerBrowser || !browser.browser.isConnected()) {
+            discard(browser);
+        } else {
+            idle.offer(browser);
+        }
+    }
+
+    private PooledBrowser launchIfBelowLimit() {
+        int current;
+        do {
+            current = launched.get();
+            if (current >= size) {
+                return null;
+            }
+        } while (!launched.compareAndSet(current, current + 1));
+
+        Playwright playwright = null;
+        try {
+            playwright = Playwright.create();
+            PooledBrowser browser = new PooledBrowser(playwright, playwright.chromium().launch(LAUNCH_OPTIONS));
+            log.info("Launched pooled browser {}/{}", current + 1, size);
+            return browser;
+        } catch (RuntimeException exception) {
+            launched.decrementAndGet();
+            if (playwright != null) {
+                playwright.close();
+            }
+            throw exception;
+        }
+    }
+
+    private void discard(PooledBrowser browser) {
+        launched.decrementAndGet();
+        try {
+            browser.playwright.close();
+        } catch (RuntimeException exception) {
+            log.warn("Close browser error: {}", exception.getLocalizedMessage());
+        }
+    }
+
+    private static class PooledBrowser {
+        private final Playwright playwright;
+        private final Browser browser;
+        private int pages;
+
+        PooledBrowser(Playwright playwright, Browser browser) {
+            this.playwright = playwright;
+            this.browser = browser;
+        }
+    }
+}
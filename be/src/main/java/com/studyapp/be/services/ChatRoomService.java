@@ -1,6 +1,7 @@
 package com.studyapp.be.services;
 
 import com.studyapp.be.dao.ChatRoomDao;
+import com.studyapp.be.dao.RoomSummaryDao;
 import com.studyapp.be.dao.UserDao;
 import com.studyapp.be.dto.request.CreateChatRoomRequest;
 import com.studyapp.be.dto.response.ChatRoomResponseDto;
@@ -16,25 +17,38 @@ import com.studyapp.be.specifications.ChatRoomSpecification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChatRoomService {
+    private static final String LAST_ACTIVITY_SORT = "lastActivityAt";
+
     private final ChatRoomDao chatRoomDao;
+    private final RoomSummaryDao roomSummaryDao;
     private final UserDao userDao;
     private final ChatRoomMapper chatRoomMapper;
     private final SecurityService securityService;
+    private final RoomSummaryService roomSummaryService;
 
     @Transactional
     public ChatRoomResponseDto createChatRoom(CreateChatRoomRequest request) {
@@ -49,29 +63,67 @@ public class ChatRoomService {
 
         ChatRoom chatRoom = ChatRoom.builder().type(request.getChatType()).name(request.getName()).creator(creator).build();
 
-        Set<ChatRoomMember> members = memberIds.stream().map(userId -> {
-            User memberUser = userDao.findById(userId).orElseThrow(() -> new AppException(AppError.USER_NOT_FOUND));
+        List<User> memberUsers = new ArrayList<>();
+        userDao.findAllById(memberIds).forEach(memberUsers::add);
+        if (memberUsers.size() != memberIds.size()) {
+            throw new AppException(AppError.USER_NOT_FOUND);
+        }
+
+        Set<ChatRoomMember> members = memberUsers.stream().map(memberUser -> {
             Set<MemberRole> roles = new HashSet<>(Collections.singleton(MemberRole.MEMBER));
-            if (userId.equals(creator.getId())) roles.add(MemberRole.ADMIN);
+            if (memberUser.getId().equals(creator.getId())) roles.add(MemberRole.ADMIN);
             return ChatRoomMember.builder().chatRoom(chatRoom).user(memberUser).roles(roles).build();
         }).collect(Collectors.toSet());
 
         chatRoom.setMembers(members);
         ChatRoom savedRoom = chatRoomDao.save(chatRoom);
-        return chatRoomMapper.entityToDto(savedRoom);
+        roomSummaryService.createRoom(savedRoom.getId(), savedRoom.getCreatedAt());
+        ChatRoomResponseDto chatRoomResponseDto = chatRoomMapper.entityToDto(savedRoom);
+        roomSummaryService.attachSummaries(List.of(chatRoomResponseDto));
+        return chatRoomResponseDto;
     }
 
+    @Transactional(readOnly = true)
     public ChatRoomResponseDto findRoomById(Long id) {
-        return chatRoomMapper.entityToDto(chatRoomDao.findById(id).orElseThrow(() -> new AppException(AppError.CHATROOM_NOT_FOUND)));
+        ChatRoomResponseDto chatRoomResponseDto = chatRoomMapper.entityToDto(chatRoomDao.findById(id).orElseThrow(() -> new AppException(AppError.CHATROOM_NOT_FOUND)));
+        roomSummaryService.attachSummaries(List.of(chatRoomResponseDto));
+        return chatRoomResponseDto;
     }
 
+    @Transactional(readOnly = true)
     public Page<ChatRoomResponseDto> searchChatRooms(String name,
                                                      ChatRoomType type,
                                                      Long creatorId,
                                                      Long memberId,
                                                      LocalDateTime createdAfter, Pageable pageable) {
-        Specification<ChatRoom> spec = ChatRoomSpecification.combineAll(name, type, creatorId, memberId, createdAfter);
-        return chatRoomDao.findAll(spec, pageable).map(chatRoomMapper::entityToDto);
+        Page<ChatRoomResponseDto> rooms;
+        Sort.Order lastActivity = pageable.getSort().getOrderFor(LAST_ACTIVITY_SORT);
+        if (lastActivity != null) {
+            rooms = findByLastActivity(name, type, creatorId, memberId, createdAfter, lastActivity.getDirection(), pageable);
+        } else {
+            Specification<ChatRoom> spec = ChatRoomSpecification.combineAll(name, type, creatorId, memberId, createdAfter);
+            rooms = chatRoomDao.findAll(spec, pageable).map(chatRoomMapper::entityToDto);
+        }
+        roomSummaryService.attachSummaries(rooms.getContent());
+        return rooms;
+    }
+
+    // A member's inbox walks their own (user_id, last_activity_at) index instead of filtering the global summary order.
+    private Page<ChatRoomResponseDto> findByLastActivity(String name, ChatRoomType type, Long creatorId, Long memberId,
+                                                         LocalDateTime createdAfter, Sort.Direction direction, Pageable pageable) {
+        Page<Long> roomIds = memberId == null
+                ? roomSummaryDao.findRoomIdsByLastActivity(name, type, creatorId, createdAfter,
+                        PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(direction, "lastActivityAt", "roomId")))
+                : roomSummaryDao.findMemberRoomIdsByLastActivity(memberId, name, type, creatorId, createdAfter,
+                        PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(direction, "lastActivityAt", "chatRoom.id")));
+        Map<Long, ChatRoom> chatRooms = StreamSupport.stream(chatRoomDao.findAllById(roomIds.getContent()).spliterator(), false)
+                .collect(Collectors.toMap(ChatRoom::getId, Function.identity()));
+        List<ChatRoomResponseDto> content = roomIds.getContent().stream()
+                .map(chatRooms::get)
+                .filter(Objects::nonNull)
+                .map(chatRoomMapper::entityToDto)
+                .toList();
+        return new PageImpl<>(content, pageable, roomIds.getTotalElements());
     }
 
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ public class CommentService {
     private final ReactionMapper reactionMapper;
     private final PostCommentAttachmentReactionDao postCommentAttachmentReactionDao;
     private final SecurityService securityService;
+    private final PostCounterService postCounterService;
 
 
     @Transactional
@@ -32,6 +33,9 @@ public class CommentService {
             throw new AppException(AppError.AUTH_ACCESS_DENIED);
         }
         commentDao.delete(comment);
+        if (comment instanceof PostComment postComment) {
+            postCounterService.decrementCommentCount(postComment.getPost().getId());
+        }
     }
 
     @Transactional
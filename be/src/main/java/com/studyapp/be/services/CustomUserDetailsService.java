@@ -2,17 +2,15 @@ package com.studyapp.be.services;
 
 
 import com.studyapp.be.dao.UserDao;
+import com.studyapp.be.dto.response.CustomUserDetails;
 import com.studyapp.be.entities.User;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
@@ -20,23 +18,19 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userDao.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException(username));
-        return new UserDetails() {
-            @Override
-            public Collection<? extends GrantedAuthority> getAuthorities() {
-                return user.getRoles().stream().map(role -> new SimpleGrantedAuthority(role.name())).toList();
-            }
+        return toUserDetails(loadUserEntityByUsername(username));
+    }
 
-            @Override
-            public String getPassword() {
-                return user.getPassword();
-            }
+    public User loadUserEntityByUsername(String username) throws UsernameNotFoundException {
+        return userDao.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException(username));
+    }
 
-            @Override
-            public String getUsername() {
-                return username;
-            }
-        };
+    public CustomUserDetails toUserDetails(User user) {
+        return CustomUserDetails.builder()
+                .id(user.getId())
+                .username(user.getEmail())
+                .password(user.getPassword())
+                .authorities(user.getRoles().stream().map(role -> new SimpleGrantedAuthority(role.name())).toList())
+                .build();
     }
 }
-
@@ -65,7 +65,7 @@ public class FcmService {
 
     public void createFcmToken(String token) {
         try {
-            FirebaseMessaging.getInstance().subscribeToTopic(List.of(token), "user_" + securityService.getUserFromRequest().getId());
+            FirebaseMessaging.getInstance().subscribeToTopic(List.of(token), "user_" + securityService.getCurrentUserId());
         } catch (FirebaseMessagingException e) {
             throw new AppException(AppError.INTERNAL_SERVER_ERROR);
         }
@@ -81,7 +81,7 @@ public class FcmService {
 
     public void deleteFcmToken(String token) {
         try {
-            FirebaseMessaging.getInstance().unsubscribeFromTopic(List.of(token), "user_" + securityService.getUserFromRequest().getId());
+            FirebaseMessaging.getInstance().unsubscribeFromTopic(List.of(token), "user_" + securityService.getCurrentUserId());
         } catch (FirebaseMessagingException e) {
             throw new AppException(AppError.INTERNAL_SERVER_ERROR);
         }
@@ -0,0 +1,152 @@
+package com.studyapp.be.services;
+
+import com.studyapp.be.Utils;
+import com.studyapp.be.dao.FeedEntryDao;
+import com.studyapp.be.dao.PostDao;
+import com.studyapp.be.dto.response.CursorSliceResponseDto;
+import com.studyapp.be.entities.FeedEntry;
+import com.studyapp.be.entities.Post;
+import com.studyapp.be.enums.FeedTier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FeedService {
+    private final FeedEntryDao feedEntryDao;
+    private final PostDao postDao;
+
+    @Value("${app.feed.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    // Keyset over (tier, score, created_at, id); tier 2 is every other post, ranked straight from the posts table.
+    @Transactional(readOnly = true)
+    public CursorSliceResponseDto<Post> getFeed(Long userId, Utils.FeedCursor cursor, int size) {
+        int limit = size + 1;
+        List<FeedItem> items = new ArrayList<>(limit);
+        if (cursor == null || cursor.getTier() < FeedTier.OTHER.getRank()) {
+            List<FeedEntry> entries = cursor == null
+                    ? feedEntryDao.findRankedByUserId(userId, limit)
+                    : feedEntryDao.findRankedByUserIdAfter(userId, cursor.getTier(), cursor.getScore(), cursor.getCreatedAt(), cursor.getId(), limit);
+            Map<Long, Post> postsById = findPosts(entries.stream().map(FeedEntry::getPostId).toList());
+            entries.forEach(entry -> items.add(new FeedItem(postsById.get(entry.getPostId()), entry.getTier(), entry.getScore(),
+                    entry.getPostCreatedAt(), entry.getPostId())));
+        }
+        if (items.size() < limit) {
+            List<Post> others = cursor == null || cursor.getTier() < FeedTier.OTHER.getRank()
+                    ? postDao.findOtherRankedPosts(userId, limit - items.size())
+                    : postDao.findOtherRankedPostsAfter(userId, cursor.getScore(), cursor.getCreatedAt(), cursor.getId(), limit - items.size());
+            others.forEach(post -> items.add(new FeedItem(post, FeedTier.OTHER.getRank(), post.getEngagementScore(), post.getCreatedAt(), post.getId())));
+        }
+
+        boolean hasNext = items.size() > size;
+        List<FeedItem> page = hasNext ? items.subList(0, size) : items;
+        String nextCursor = null;
+        if (hasNext && !page.isEmpty()) {
+            FeedItem last = page.get(page.size() - 1);
+            nextCursor = Utils.encodeFeedCursor(last.tier, last.score, last.createdAt, last.id);
+        }
+        return CursorSliceResponseDto.<Post>builder()
+                .content(page.stream().map(item -> item.post).filter(Objects::nonNull).toList())
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Map<Long, Post> findPosts(List<Long> postIds) {
+        if (postIds.isEmpty()) return Map.of();
+        return StreamSupport.stream(postDao.findAllById(postIds).spliterator(), false)
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+    }
+
+    @Transactional
+    public void onPostCreated(Post post) {
+        Long authorId = post.getCreator().getId();
+        feedEntryDao.save(FeedEntry.builder()
+                .userId(authorId)
+                .postId(post.getId())
+                .authorId(authorId)
+                .tier(FeedTier.SELF.getRank())
+                .postCreatedAt(post.getCreatedAt())
+                .build());
+        feedEntryDao.fanOutToFriends(post.getId(), authorId, post.getCreatedAt());
+    }
+
+    @Transactional
+    public void onPostDeleted(Long postId) {
+        feedEntryDao.deleteByPostId(postId);
+    }
+
+    @Transactional
+    public void onEngagementChanged(Long postId, long delta) {
+        feedEntryDao.addToScore(postId, delta);
+    }
+
+    @Transactional
+    public void onFriendshipCreated(Long userId1, Long userId2) {
+        feedEntryDao.copyAuthorPosts(userId1, userId2);
+        feedEntryDao.copyAuthorPosts(userId2, userId1);
+    }
+
+    @Transactional
+    public void onFriendshipDeleted(Long userId1, Long userId2) {
+        feedEntryDao.deleteByUserIdAndAuthorId(userId1, userId2);
+        feedEntryDao.deleteByUserIdAndAuthorId(userId2, userId1);
+    }
+
+    @Transactional
+    public void syncScores() {
+        feedEntryDao.syncScoresFromPosts();
+    }
+
+    @Transactional
+    public void rebuild() {
+        feedEntryDao.deleteAllEntries();
+        int selfEntries = feedEntryDao.rebuildSelfEntries();
+        int friendEntries = feedEntryDao.rebuildFriendEntries();
+        log.info("Rebuilt feed entries: {} own posts, {} friend posts", selfEntries, friendEntries);
+    }
+
+    @Transactional
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup || !feedEntryDao.existsByIdIsNotNull()) {
+            rebuild();
+        }
+    }
+
+    private static class FeedItem {
+        private final Post post;
+        private final int tier;
+        private final long score;
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        FeedItem(Post post, int tier, long score, LocalDateTime createdAt, Long id) {
+            this.post = post;
+            this.tier = tier;
+            this.score = score;
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+    }
+}
@@ -1,52 +1,221 @@
 package com.studyapp.be.services;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.studyapp.be.dao.FileBlobDao;
 import com.studyapp.be.dao.FileDao;
 import com.studyapp.be.entities.File;
+import com.studyapp.be.entities.FileBlob;
+import com.studyapp.be.entities.User;
 import com.studyapp.be.enums.AppError;
 import com.studyapp.be.exceptions.AppException;
+import com.studyapp.be.storage.FileStorage;
+import com.studyapp.be.storage.StoredObject;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Map;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileService {
     private final FileDao fileDao;
+    private final FileBlobDao fileBlobDao;
     private final SecurityService securityService;
-    private final Cloudinary storage;
+    private final FileStorage fileStorage;
+    private final Executor asyncExecutor;
+    private final TransactionTemplate transactionTemplate;
 
-    @Value("${app.cloud-storage.asset-folder}")
-    private String assetFolder;
-
-    @Transactional
     public File upload(MultipartFile file) {
+        return upload(stage(file), securityService.getUserFromRequest());
+    }
+
+    public StagedFile stage(MultipartFile file) {
         if (file == null || file.isEmpty()) throw new AppException(AppError.FILE_UPLOAD_FAILED);
-        String mimeType = getMimetype(file);
-        Map params = ObjectUtils.asMap("folder", assetFolder, "resource_type", mimeType);
         try {
-            Map result = storage.uploader().upload(file.getInputStream().readAllBytes(), params);
-            File fileEntity = File.builder().creator(securityService.getUserFromRequest()).size(file.getSize()).fileCloudId(result.get("public_id").toString()).name(file.getOriginalFilename()).type(mimeType).path(result.get("secure_url").toString()).build();
-            log.info("Upload file id: {}", fileEntity.getFileCloudId());
-            return fileDao.save(fileEntity);
+            Path path = Files.createTempFile("upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new StagedFile(path, file.getOriginalFilename(), getMimetype(file), file.getSize(), HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | NoSuchAlgorithmException exception) {
+            log.error("Stage file error: {}", exception.getLocalizedMessage());
+            throw new AppException(AppError.FILE_UPLOAD_FAILED);
+        }
+    }
+
+    public List<StagedFile> stage(List<MultipartFile> files) {
+        List<StagedFile> stagedFiles = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                stagedFiles.add(stage(file));
+            }
+            return stagedFiles;
+        } catch (RuntimeException exception) {
+            discard(stagedFiles);
+            throw exception;
+        }
+    }
+
+    public File upload(StagedFile stagedFile, User creator) {
+        try {
+            StoredObject storedObject = acquireBlob(stagedFile.getContentHash(), stagedFile.getType());
+            if (storedObject == null) {
+                storedObject = registerBlob(stagedFile, fileStorage.store(stagedFile.getPath(), stagedFile.getSize(), stagedFile.getType()));
+            } else {
+                log.info("Reuse stored file {} for hash {}", storedObject.getId(), stagedFile.getContentHash());
+            }
+            return save(storedObject, stagedFile, creator);
         } catch (IOException exception) {
             log.error("Upload file error: {}", exception.getLocalizedMessage());
             throw new AppException(AppError.FILE_UPLOAD_FAILED);
+        } finally {
+            discard(stagedFile);
+        }
+    }
+
+    public void uploadAfterCommit(List<StagedFile> stagedFiles, User creator, Consumer<List<File>> onUploaded) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            uploadAsync(stagedFiles, creator, onUploaded);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    uploadAsync(stagedFiles, creator, onUploaded);
+                } else {
+                    discard(stagedFiles);
+                }
+            }
+        });
     }
 
+    private void uploadAsync(List<StagedFile> stagedFiles, User creator, Consumer<List<File>> onUploaded) {
+        List<CompletableFuture<File>> futures = new ArrayList<>();
+        for (StagedFile stagedFile : stagedFiles) {
+            try {
+                futures.add(CompletableFuture.supplyAsync(() -> upload(stagedFile, creator), asyncExecutor)
+                        .exceptionally(exception -> {
+                            log.error("Upload staged file {} error: {}", stagedFile.getName(), exception.getLocalizedMessage());
+                            return null;
+                        }));
+            } catch (RejectedExecutionException exception) {
+                log.error("Upload staged file {} rejected: {}", stagedFile.getName(), exception.getLocalizedMessage());
+                discard(stagedFile);
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenRun(() -> onUploaded.accept(futures.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList()))
+                .exceptionally(exception -> {
+                    log.error("Finalize attachments error: {}", exception.getLocalizedMessage());
+                    return null;
+                });
+    }
+
+    public void discard(List<StagedFile> stagedFiles) {
+        stagedFiles.forEach(this::discard);
+    }
+
+    private void discard(StagedFile stagedFile) {
+        try {
+            Files.deleteIfExists(stagedFile.getPath());
+        } catch (IOException exception) {
+            log.warn("Delete staged file {} error: {}", stagedFile.getPath(), exception.getLocalizedMessage());
+        }
+    }
+
+    private StoredObject acquireBlob(String contentHash, String type) {
+        if (fileBlobDao.incrementRefCount(contentHash, type) == 0) {
+            return null;
+        }
+        return fileBlobDao.findByContentHashAndType(contentHash, type)
+                .map(blob -> new StoredObject(blob.getFileCloudId(), blob.getPath()))
+                .orElse(null);
+    }
+
+    private StoredObject registerBlob(StagedFile stagedFile, StoredObject uploaded) {
+        fileBlobDao.register(stagedFile.getContentHash(), stagedFile.getType(), uploaded.getId(), uploaded.getUrl());
+        FileBlob blob = fileBlobDao.findByContentHashAndType(stagedFile.getContentHash(), stagedFile.getType()).orElseThrow(() -> new AppException(AppError.FILE_UPLOAD_FAILED));
+        if (!blob.getFileCloudId().equals(uploaded.getId())) {
+            // A concurrent upload of the same content registered first; keep its copy and drop ours.
+            deleteStoredObject(uploaded.getId(), stagedFile.getType());
+        }
+        return new StoredObject(blob.getFileCloudId(), blob.getPath());
+    }
+
+    public void release(File file) {
+        String fileCloudId = file.getFileCloudId();
+        String contentHash = file.getContentHash();
+        String type = file.getType();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            releaseBlob(fileCloudId, contentHash, type);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                releaseBlob(fileCloudId, contentHash, type);
+            }
+        });
+    }
+
+    private void releaseBlob(String fileCloudId, String contentHash, String type) {
+        TransactionTemplate requiresNew = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Boolean lastReference = requiresNew.execute(status -> {
+            if (contentHash == null) {
+                return !fileDao.existsByFileCloudId(fileCloudId);
+            }
+            fileBlobDao.decrementRefCount(contentHash, type);
+            return fileBlobDao.deleteUnreferenced(contentHash, type) > 0;
+        });
+        if (Boolean.TRUE.equals(lastReference)) {
+            deleteStoredObject(fileCloudId, type);
+        }
+    }
+
+    private void deleteStoredObject(String id, String type) {
+        try {
+            fileStorage.delete(id, type);
+            log.info("Delete file: {}", id);
+        } catch (IOException exception) {
+            log.error("Delete file error: {}", exception.getLocalizedMessage());
+        }
+    }
+
+    private File save(StoredObject storedObject, StagedFile stagedFile, User creator) {
+        File fileEntity = File.builder().creator(creator).size(stagedFile.getSize()).fileCloudId(storedObject.getId()).name(stagedFile.getName()).type(stagedFile.getType()).path(storedObject.getUrl()).contentHash(stagedFile.getContentHash()).build();
+        log.info("Upload file id: {}", fileEntity.getFileCloudId());
+        return fileDao.save(fileEntity);
+    }
 
     private String getMimetype(MultipartFile file) {
         String contentType = file.getContentType();
@@ -62,21 +231,25 @@ public class FileService {
     @Transactional
     public void delete(Long id) {
         File file = fileDao.findById(id).orElseThrow(() -> new AppException(AppError.FILE_NOT_FOUND));
-        if (!file.getCreator().getId().equals(securityService.getUserFromRequest().getId())) {
+        if (!file.getCreator().getId().equals(securityService.getCurrentUserId())) {
             throw new AppException(AppError.AUTH_ACCESS_DENIED);
         }
-        try {
-            storage.api().deleteResources(Collections.singletonList(file.getFileCloudId()), ObjectUtils.asMap("type", "upload", "resource_type", file.getType()));
-            fileDao.delete(file);
-            log.info("Delete file: {}", file.getFileCloudId());
-        } catch (Exception exception) {
-            log.error("Delete file error: {}", exception.getLocalizedMessage());
-            throw new AppException(AppError.FILE_UPLOAD_FAILED);
-        }
+        fileDao.delete(file);
     }
+
     public File getFileById(Long id) {
         return fileDao.findById(id).orElseThrow(() -> new AppException(AppError.FILE_NOT_FOUND));
     }
 
+    @Getter
+    @AllArgsConstructor
+    public static class StagedFile {
+        private Path path;
+        private String name;
+        private String type;
+        private long size;
+        private String contentHash;
+    }
+
 
 }
@@ -35,6 +35,7 @@ public class FriendRequestService {
     private final FriendShipRequestMapper friendShipRequestMapper;
     private final SecurityService securityService;
     private final ChatRoomService chatRoomService;
+    private final FeedService feedService;
 
     @Transactional
     public void createFriendRequest(Long receiverId) {
@@ -56,7 +57,7 @@ public class FriendRequestService {
         FriendShipRequest friendShipRequest = friendRequestDao.findById(id).orElseThrow(() -> new AppException(AppError.FRIEND_REQUEST_NOT_FOUND));
         User sender = friendShipRequest.getSender();
         User receiver = friendShipRequest.getReceiver();
-        if (!securityService.getUserFromRequest().getId().equals(receiver.getId())) {
+        if (!receiver.getId().equals(securityService.getCurrentUserId())) {
             throw new AppException(AppError.AUTH_ACCESS_DENIED);
         }
         FriendShip friendShip = FriendShip.builder()
@@ -64,6 +65,7 @@ public class FriendRequestService {
                 .user2(receiver)
                 .build();
         friendDao.save(friendShip);
+        feedService.onFriendshipCreated(sender.getId(), receiver.getId());
         friendRequestDao.delete(friendShipRequest);
         fcmService.sendToUser(sender.getId(), "Friend Request Accepted", receiver.getFirstName() + " accepted your friend request! Tap to start chatting.", Map.of("type", "friend_request_accepted", "receiverId", receiver.getId().toString()));
         chatRoomService.createChatRoom(CreateChatRoomRequest.builder()
@@ -75,8 +77,9 @@ public class FriendRequestService {
     @Transactional
     public void deleteRequest(Long id) {
         FriendShipRequest friendShipRequest = friendRequestDao.findById(id).orElseThrow(() -> new AppException(AppError.FRIEND_REQUEST_NOT_FOUND));
-        if (!securityService.getUserFromRequest().getId().equals(friendShipRequest.getSender().getId()) && !securityService.getUserFromRequest().getId().equals(friendShipRequest.getReceiver().getId())) {
-           log.info("{}, {}, {}", securityService.getUserFromRequest().getId(), friendShipRequest.getSender().getId(), friendShipRequest.getReceiver().getId());
+        Long currentUserId = securityService.getCurrentUserId();
+        if (!friendShipRequest.getSender().getId().equals(currentUserId) && !friendShipRequest.getReceiver().getId().equals(currentUserId)) {
+           log.info("{}, {}, {}", currentUserId, friendShipRequest.getSender().getId(), friendShipRequest.getReceiver().getId());
             throw new AppException(AppError.AUTH_ACCESS_DENIED);
         }
         friendRequestDao.delete(friendShipRequest);
@@ -84,13 +87,13 @@ public class FriendRequestService {
 
     public Page<FriendShipRequestResponseDto> getFriendRequestSent(Pageable pageable) {
         Specification<FriendShipRequest> spec = Specification.where(null);
-        spec = spec.and(FriendShipRequestSpecification.hasSender(securityService.getUserFromRequest().getId()));
+        spec = spec.and(FriendShipRequestSpecification.hasSender(securityService.getCurrentUserId()));
         return friendRequestDao.findAll(spec, pageable).map(friendShipRequestMapper::entityToDto);
     }
 
     public Page<FriendShipRequestResponseDto> getFriendRequestReceived(Pageable pageable) {
         Specification<FriendShipRequest> spec = Specification.where(null);
-        spec = spec.and(FriendShipRequestSpecification.hasReceiver(securityService.getUserFromRequest().getId()));
+        spec = spec.and(FriendShipRequestSpecification.hasReceiver(securityService.getCurrentUserId()));
         return friendRequestDao.findAll(spec, pageable).map(friendShipRequestMapper::entityToDto);
     }
     public boolean isFriendRequestSent(Long senderId, Long receiverId) {
@@ -25,6 +25,7 @@ public class FriendService {
     private final UserDao userDao;
     private final SecurityService securityService;
     private final FriendShipMapper friendShipMapper;
+    private final FeedService feedService;
 
     @Transactional
     public FriendShipResponseDto createFriendship(CreateFriendDto dto) {
@@ -34,7 +35,9 @@ public class FriendService {
                 .user1(user1)
                 .user2(user2)
                 .build();
-        return friendShipMapper.entityToDto(friendDao.save(friendShip));
+        FriendShip savedFriendShip = friendDao.save(friendShip);
+        feedService.onFriendshipCreated(user1.getId(), user2.getId());
+        return friendShipMapper.entityToDto(savedFriendShip);
     }
 
     @Transactional(readOnly = true)
@@ -54,7 +57,9 @@ public class FriendService {
 
     @Transactional
     public void deleteFriendship(Long id) {
-        friendDao.delete(friendDao.findById(id).orElseThrow(() -> new AppException(AppError.FRIENDSHIP_NOT_FOUND)));
+        FriendShip friendShip = friendDao.findById(id).orElseThrow(() -> new AppException(AppError.FRIENDSHIP_NOT_FOUND));
+        friendDao.delete(friendShip);
+        feedService.onFriendshipDeleted(friendShip.getUser1().getId(), friendShip.getUser2().getId());
     }
     @Transactional(readOnly = true)
     public long countFriends() {
@@ -0,0 +1,54 @@
+package com.studyapp.be.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdSequenceService implements SmartInitializingSingleton {
+    private static final Map<String, String> SEQUENCES = Map.ofEntries(
+            Map.entry("message_seq", "message"),
+            Map.entry("chat_room_seq", "chat_room"),
+            Map.entry("chat_room_member_seq", "chat_room_member"),
+            Map.entry("users_seq", "users"),
+            Map.entry("posts_seq", "posts"),
+            Map.entry("files_seq", "files"),
+            Map.entry("reactions_seq", "reactions"),
+            Map.entry("comments_seq", "comments"),
+            Map.entry("attachments_seq", "attachments"),
+            Map.entry("friendships_seq", "friendships"),
+            Map.entry("friendship_requests_seq", "friendship_requests"),
+            Map.entry("verification_email_tokens_seq", "verification_email_tokens")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Tables that used IDENTITY keep their rows; a fresh sequence must start past them.
+    // Runs after the schema update and before the web server accepts requests.
+    @Override
+    public void afterSingletonsInstantiated() {
+        SEQUENCES.forEach((sequence, table) -> {
+            Boolean called = jdbcTemplate.queryForObject("SELECT is_called FROM " + sequence, Boolean.class);
+            if (Boolean.TRUE.equals(called)) {
+                return;
+            }
+            Long next = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+            jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', ?, false)", Long.class, next);
+            log.info("Sequence {} starts at {}", sequence, next);
+        });
+    }
+
+    public long nextBlock(String sequence) {
+        Long value = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+        if (value == null) {
+            throw new IllegalStateException("Sequence " + sequence + " returned no value");
+        }
+        return value;
+    }
+}
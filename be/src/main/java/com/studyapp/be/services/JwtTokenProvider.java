@@ -1,75 +1,77 @@
 package com.studyapp.be.services;
 
+import com.studyapp.be.dto.response.CustomUserDetails;
+import com.studyapp.be.entities.User;
 import com.studyapp.be.enums.AppError;
 import com.studyapp.be.exceptions.AppException;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration}")
     private long jwtExpirationInMs;
 
+    private SecretKey signKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(signKey).build();
+    }
 
-    public String generateToken(String email) {
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiration = new Date(now.getTime() + jwtExpirationInMs);
         return Jwts.builder()
-                .subject(email)
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLES_CLAIM, user.getRoles().stream().map(Enum::name).toList())
                 .issuedAt(now)
                 .expiration(expiration)
-                .signWith(getSignKey())
+                .signWith(signKey)
                 .compact();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        return claimsResolver.apply(extractAllClaims(token));
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    private Claims extractAllClaims(String token) {
+    public Claims parseToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith((SecretKey) getSignKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException expiredJwtException) {
             throw new AppException(AppError.TOKEN_EXPIRED);
         }
     }
 
-    private boolean isTokenExpired(Date time) {
-        return time.before(new Date());
-    }
-
-    public boolean isValidToken(String token) {
-        return !isTokenExpired(extractExpiration(token));
-    }
-
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public CustomUserDetails toUserDetails(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+        return CustomUserDetails.builder()
+                .id(userId.longValue())
+                .username(claims.getSubject())
+                .authorities(roles.stream().map(role -> new SimpleGrantedAuthority(role.toString())).toList())
+                .build();
     }
-
 }
@@ -0,0 +1,247 @@
+package com.studyapp.be.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studyapp.be.dto.response.LinkPreviewDTO;
+import com.studyapp.be.dto.response.LinkPreviewResultDto;
+import com.studyapp.be.enums.LinkPreviewError;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves several previews in one request: cache hits are written immediately, misses are fetched on a bounded
+ * pool with a per-host concurrency limit and delay, and every result is streamed as one JSON line when ready.
+ * A miss whose host is at its limit waits in that host's queue, not on a worker thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LinkPreviewBatchService {
+    private final LinkPreviewService linkPreviewService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${link-preview.batch.threads:8}")
+    private int threads;
+
+    @Value("${link-preview.batch.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${link-preview.batch.per-host-concurrency:2}")
+    private int perHostConcurrency;
+
+    @Value("${link-preview.batch.per-host-delay-ms:250}")
+    private long perHostDelayMs;
+
+    @Value("${link-preview.batch.timeout-ms:30000}")
+    private long timeoutMs;
+
+    // Host state is only read and changed inside compute/computeIfPresent, so admission and removal are atomic per host.
+    private final Map<String, HostLimiter> hosts = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private ThreadPoolExecutor executor;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "link-preview-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "link-preview-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        long sweepMs = Math.max(perHostDelayMs, 1000);
+        scheduler.scheduleWithFixedDelay(this::evictIdleHosts, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public ResponseBodyEmitter previewAll(List<String> urls) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMs);
+        List<String> misses = new ArrayList<>();
+        for (String url : new LinkedHashSet<>(urls)) {
+            try {
+                LinkPreviewDTO cached = linkPreviewService.getCachedPreview(url);
+                if (cached != null) {
+                    send(emitter, LinkPreviewResultDto.builder().url(url).preview(cached).build());
+                } else {
+                    misses.add(url);
+                }
+            } catch (Exception e) {
+                send(emitter, failure(url, LinkPreviewError.INVALID_URL));
+            }
+        }
+        if (misses.isEmpty()) {
+            emitter.complete();
+            return emitter;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(misses.size());
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (String url : misses) {
+            Task task = new Task(url, hostOf(url), emitter, remaining, deadline);
+            if (pending.incrementAndGet() > queueCapacity) {
+                pending.decrementAndGet();
+                finish(task, failure(url, LinkPreviewError.BUSY));
+                continue;
+            }
+            hosts.compute(task.host, (host, limiter) -> {
+                HostLimiter state = limiter != null ? limiter : new HostLimiter();
+                if (state.active < perHostConcurrency) {
+                    state.active++;
+                    dispatch(task, state.reserveSlot(perHostDelayMs));
+                } else {
+                    state.waiting.add(task);
+                }
+                return state;
+            });
+        }
+        return emitter;
+    }
+
+    // Always goes through the scheduler so a rejection is never handled inside the compute that dispatched it.
+    private void dispatch(Task task, long delayMs) {
+        scheduler.schedule(() -> {
+            try {
+                executor.execute(() -> run(task));
+            } catch (RejectedExecutionException e) {
+                finish(task, failure(task.url, LinkPreviewError.BUSY));
+                release(task);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(Task task) {
+        try {
+            // The emitter has already timed out, so the result could not be delivered anyway.
+            if (System.currentTimeMillis() > task.deadline) {
+                finish(task, failure(task.url, LinkPreviewError.BUSY));
+            } else {
+                finish(task, fetch(task.url));
+            }
+        } finally {
+            release(task);
+        }
+    }
+
+    private void release(Task task) {
+        pending.decrementAndGet();
+        hosts.computeIfPresent(task.host, (host, state) -> {
+            Task next = state.waiting.poll();
+            if (next != null) {
+                dispatch(next, state.reserveSlot(perHostDelayMs));
+                return state;
+            }
+            state.active--;
+            return state.isIdle() ? null : state;
+        });
+    }
+
+    private void evictIdleHosts() {
+        hosts.keySet().forEach(host -> hosts.computeIfPresent(host, (key, state) -> state.isIdle() ? null : state));
+    }
+
+    private LinkPreviewResultDto fetch(String url) {
+        try {
+            return LinkPreviewResultDto.builder().url(url).preview(linkPreviewService.getLinkPreview(url)).build();
+        } catch (Exception e) {
+            log.warn("Fetch link preview for {} error: {}", url, e.getLocalizedMessage());
+            return failure(url, LinkPreviewError.FETCH_FAILED);
+        }
+    }
+
+    private void finish(Task task, LinkPreviewResultDto result) {
+        send(task.emitter, result);
+        if (task.remaining.decrementAndGet() == 0) {
+            task.emitter.complete();
+        }
+    }
+
+    private void send(ResponseBodyEmitter emitter, LinkPreviewResultDto result) {
+        try {
+            emitter.send(objectMapper.writeValueAsString(result) + "\n", MediaType.APPLICATION_NDJSON);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Send link preview for {} error: {}", result.getUrl(), e.getLocalizedMessage());
+        }
+    }
+
+    private static LinkPreviewResultDto failure(String url, LinkPreviewError error) {
+        return LinkPreviewResultDto.builder().url(url).error(error).build();
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = new URI(url).getHost().toLowerCase(Locale.ROOT);
+            return host.startsWith("www.") ? host.substring(4) : host;
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static class Task {
+        private final String url;
+        private final String host;
+        private final ResponseBodyEmitter emitter;
+        private final AtomicInteger remaining;
+        private final long deadline;
+
+        Task(String url, String host, ResponseBodyEmitter emitter, AtomicInteger remaining, long deadline) {
+            this.url = url;
+            this.host = host;
+            this.emitter = emitter;
+            this.remaining = remaining;
+            this.deadline = deadline;
+        }
+    }
+
+    private static class HostLimiter {
+        private final Deque<Task> waiting = new ArrayDeque<>();
+        private int active;
+        private long nextFetchAt;
+
+        // Returns how long the caller must wait before fetching and books the following slot.
+        long reserveSlot(long delayMs) {
+            long now = System.currentTimeMillis();
+            long slot = Math.max(nextFetchAt, now);
+            nextFetchAt = slot + delayMs;
+            return slot - now;
+        }
+
+        boolean isIdle() {
+            return active == 0 && waiting.isEmpty() && nextFetchAt <= System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.studyapp.be.services;
+
+import com.studyapp.be.dto.response.LinkPreviewDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded in-process LRU in front of Redis. Failed fetches are cached under a separate key with a short TTL
+ * so a dead link is not fetched again on every paste.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LinkPreviewCache {
+    private static final String FAILURE_PREFIX = "link-preview:failed:";
+
+    private final RedisTemplate<String, LinkPreviewDTO> redisTemplate;
+
+    @Value("${link-preview.cache.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${link-preview.cache.failure-ttl-ms:60000}")
+    private long failureTtlMs;
+
+    @Value("${link-preview.cache.local-max-entries:1000}")
+    private int localMaxEntries;
+
+    @Value("${link-preview.cache.local-ttl-ms:300000}")
+    private long localTtlMs;
+
+    private final LinkedHashMap<String, Entry> local = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > localMaxEntries;
+        }
+    };
+
+    public LinkPreviewDTO get(String key) {
+        LinkPreviewDTO preview = getLocal(key);
+        if (preview != null) {
+            return preview;
+        }
+        try {
+            List<LinkPreviewDTO> values = redisTemplate.opsForValue().multiGet(List.of(key, FAILURE_PREFIX + key));
+            if (values == null) {
+                return null;
+            }
+            if (values.get(0) != null) {
+                putLocal(key, values.get(0), localTtlMs);
+                return values.get(0);
+            }
+            if (values.get(1) != null) {
+                putLocal(key, values.get(1), Math.min(localTtlMs, failureTtlMs));
+                return values.get(1);
+            }
+        } catch (Exception e) {
+            log.error("Cache retrieval failed for URL: {}", key, e);
+        }
+        return null;
+    }
+
+    public void put(String key, LinkPreviewDTO preview) {
+        putLocal(key, preview, localTtlMs);
+        store(key, preview, ttlMs);
+    }
+
+    public void putFailure(String key, LinkPreviewDTO preview) {
+        putLocal(key, preview, Math.min(localTtlMs, failureTtlMs));
+        store(FAILURE_PREFIX + key, preview, failureTtlMs);
+    }
+
+    private void store(String key, LinkPreviewDTO preview, long ttl) {
+        try {
+            redisTemplate.opsForValue().set(key, preview, Duration.ofMillis(ttl));
+        } catch (Exception e) {
+            log.error("Caching failed for URL: {}", key, e);
+        }
+    }
+
+    private synchronized LinkPreviewDTO getLocal(String key) {
+        Entry entry = local.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            local.remove(key);
+            return null;
+        }
+        return entry.preview;
+    }
+
+    private synchronized void putLocal(String key, LinkPreviewDTO preview, long ttl) {
+        local.put(key, new Entry(preview, System.currentTimeMillis() + ttl));
+    }
+
+    private static class Entry {
+        private final LinkPreviewDTO preview;
+        private final long expiresAt;
+
+        Entry(LinkPreviewDTO preview, long expiresAt) {
+            this.preview = preview;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
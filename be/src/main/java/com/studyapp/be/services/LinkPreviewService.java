@@ -10,16 +10,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 @Service
@@ -30,30 +37,107 @@ public class LinkPreviewService {
     @Value("${link-preview.timeout:10000}")
     private int timeout;
 
+    @Value("${link-preview.max-head-bytes:524288}")
+    private int maxHeadBytes;
+
     @Value("${link-preview.spa-domains}")
     private List<String> spaDomains;
 
-    private final RedisTemplate<String, LinkPreviewDTO> redisTemplate;
+    private final LinkPreviewCache linkPreviewCache;
+    private final UrlCanonicalizer urlCanonicalizer;
+    private final ObjectMapper objectMapper;
+    private final BrowserPool browserPool;
 
     private static final Set<String> ALLOWED_SCHEMES = Set.of("http", "https");
     private static final Pattern DOMAIN_PATTERN = Pattern.compile("^[a-zA-Z0-9-]+(\\.[a-zA-Z0-9-]+)+$");
 
+    private final Map<String, CompletableFuture<LinkPreviewDTO>> inFlightFetches = new ConcurrentHashMap<>();
+
     public LinkPreviewDTO getLinkPreview(String url) throws URISyntaxException {
         try {
             validateUrl(url);
-            LinkPreviewDTO cached = getFromCache(url);
+            String key = urlCanonicalizer.canonicalize(url);
+            LinkPreviewDTO cached = linkPreviewCache.get(key);
             if (cached != null) return cached;
 
-            return isSPA(url) ? handleSPAUrl(url) : handleStandardUrl(url);
-        } catch (IOException e) {
-            log.error("Lỗi truy cập URL: {}", url, e);
-            return generateErrorPreview(url);
+            // Concurrent misses for the same URL wait for a single fetch.
+            CompletableFuture<LinkPreviewDTO> fetch = new CompletableFuture<>();
+            CompletableFuture<LinkPreviewDTO> inFlight = inFlightFetches.putIfAbsent(key, fetch);
+            if (inFlight != null) return await(inFlight);
+            try {
+                LinkPreviewDTO preview = fetch(url, key);
+                fetch.complete(preview);
+                return preview;
+            } catch (RuntimeException e) {
+                fetch.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlightFetches.remove(key, fetch);
+            }
         } catch (Exception e) {
             log.error("Lỗi không xác định: {}", url, e);
             throw e;
         }
     }
 
+    public LinkPreviewDTO getCachedPreview(String url) throws URISyntaxException {
+        validateUrl(url);
+        return linkPreviewCache.get(urlCanonicalizer.canonicalize(url));
+    }
+
+    private LinkPreviewDTO fetch(String url, String key) {
+        String target = urlCanonicalizer.isShortened(url) ? urlCanonicalizer.resolve(url) : url;
+        String targetKey = urlCanonicalizer.canonicalize(target);
+        if (!targetKey.equals(key)) {
+            LinkPreviewDTO cached = linkPreviewCache.get(targetKey);
+            if (cached != null) {
+                linkPreviewCache.put(key, cached);
+                return cached;
+            }
+        }
+        try {
+            validateUrl(target);
+            if (isSPA(target)) {
+                try {
+                    return cache(key, targetKey, target, handleSPAUrl(target));
+                } catch (PlaywrightException e) {
+                    // A busy or broken browser pool is transient and the static shell is a degraded preview, so it gets the failure TTL.
+                    log.error("Lỗi Playwright: {}", e.getMessage());
+                    LinkPreviewDTO preview = handleStandardUrl(target);
+                    linkPreviewCache.putFailure(key, preview);
+                    return preview;
+                }
+            }
+            return cache(key, targetKey, target, handleStandardUrl(target));
+        } catch (IOException | URISyntaxException e) {
+            log.error("Lỗi truy cập URL: {}", url, e);
+            LinkPreviewDTO preview = generateErrorPreview(url);
+            linkPreviewCache.putFailure(key, preview);
+            return preview;
+        }
+    }
+
+    private LinkPreviewDTO cache(String key, String targetKey, String target, LinkPreviewDTO preview) {
+        Set<String> keys = new LinkedHashSet<>(List.of(key, targetKey));
+        String canonical = urlCanonicalizer.canonicalFor(target, preview.getCanonicalUrl());
+        if (canonical != null) {
+            keys.add(canonical);
+        }
+        keys.forEach(cacheKey -> linkPreviewCache.put(cacheKey, preview));
+        return preview;
+    }
+
+    private LinkPreviewDTO await(CompletableFuture<LinkPreviewDTO> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     private LinkPreviewDTO generateErrorPreview(String url) {
         LinkPreviewDTO preview = new LinkPreviewDTO();
         preview.setUrl(url);
@@ -68,44 +152,54 @@ public class LinkPreviewService {
                 .timeout(timeout)
                 .followRedirects(true)
                 .ignoreHttpErrors(true)
-                .maxBodySize(0)
+                .maxBodySize(maxHeadBytes)
                 .header("Accept-Language", "en-US,en;q=0.9")
                 .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8")
                 .referrer("https://www.google.com");
 
-        Document doc = connection.get();
-        int statusCode = connection.response().statusCode();
+        Connection.Response response = connection.execute();
+        int statusCode = response.statusCode();
 
         if (statusCode >= 400) {
             log.warn("Truy cập URL {} trả về mã lỗi {}", url, statusCode);
         }
 
-        LinkPreviewDTO preview = extractMetadata(doc, url);
-        cacheResult(url, preview);
-        return preview;
+        try (StreamParser parser = response.streamParser()) {
+            return extractMetadata(parseHead(parser), url);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
-    private LinkPreviewDTO handleSPAUrl(String url) throws IOException {
-        try (Playwright playwright = Playwright.create()) {
-            Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
-                    .setHeadless(true)
-                    .setArgs(List.of(
-                            "--no-sandbox",
-                            "--disable-dev-shm-usage",
-                            "--disable-blink-features=AutomationControlled",
-                            "--disable-infobars")));
-
-            BrowserContext context = browser.newContext(new Browser.NewContextOptions()
-                    .setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                    .setViewportSize(1280, 720));
+    // Previews only need the head: stop at </head> and drop inline scripts and styles as they stream past.
+    private Document parseHead(StreamParser parser) {
+        Iterator<Element> elements = parser.iterator();
+        while (elements.hasNext()) {
+            Element element = elements.next();
+            String tag = element.normalName();
+            if ("head".equals(tag) || "body".equals(tag)) {
+                parser.stop();
+                break;
+            }
+            if ("style".equals(tag) || ("script".equals(tag) && !"application/ld+json".equalsIgnoreCase(element.attr("type")))) {
+                element.remove();
+            }
+        }
+        return parser.document();
+    }
 
+    private LinkPreviewDTO handleSPAUrl(String url) {
+        Browser.NewContextOptions options = new Browser.NewContextOptions()
+                .setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
+                .setViewportSize(1280, 720);
+        return browserPool.withContext(options, context -> {
             Page page = context.newPage();
 
             page.addInitScript("Object.defineProperty(navigator, 'webdriver', { get: () => false });");
 
             Response response = page.navigate(url, new Page.NavigateOptions().setTimeout(15000));
 
-            if (response.status() >= 400) {
+            if (response != null && response.status() >= 400) {
                 log.warn("Truy cập SPA URL {} trả về mã lỗi {}", url, response.status());
             }
 
@@ -120,10 +214,7 @@ public class LinkPreviewService {
             String html = page.content();
             Document doc = Jsoup.parse(html, url);
             return extractMetadata(doc, url);
-        } catch (PlaywrightException e) {
-            log.error("Lỗi Playwright: {}", e.getMessage());
-            return handleStandardUrl(url);
-        }
+        });
     }
 
     private LinkPreviewDTO extractMetadata(Document doc, String originalUrl) {
@@ -144,10 +235,12 @@ public class LinkPreviewService {
         if (preview.getDescription() == null) preview.setDescription(getMetaTag(doc, "description"));
 
         preview.setFaviconUrl(doc.select("link[rel~=icon]").attr("href"));
+        String canonicalUrl = doc.select("link[rel=canonical]").attr("abs:href");
+        preview.setCanonicalUrl(canonicalUrl.isEmpty() ? null : canonicalUrl);
 
         doc.select("script[type='application/ld+json']").forEach(script -> {
             try {
-                JsonNode json = new ObjectMapper().readTree(script.html());
+                JsonNode json = objectMapper.readTree(script.html());
                 if (preview.getTitle() == null) preview.setTitle(json.at("/name").asText());
                 if (preview.getDescription() == null) preview.setDescription(json.at("/description").asText());
             } catch (IOException ignored) {
@@ -194,21 +287,4 @@ public class LinkPreviewService {
             return "";
         }
     }
-
-    private void cacheResult(String url, LinkPreviewDTO preview) {
-        try {
-            redisTemplate.opsForValue().set(url, preview, Duration.ofHours(24));
-        } catch (Exception e) {
-            log.error("Caching failed for URL: {}", url, e);
-        }
-    }
-
-    private LinkPreviewDTO getFromCache(String url) {
-        try {
-            return redisTemplate.opsForValue().get(url);
-        } catch (Exception e) {
-            log.error("Cache retrieval failed for URL: {}", url, e);
-            return null;
-        }
-    }
 }
@@ -0,0 +1,25 @@
+package com.studyapp.be.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class MessageIdAllocator {
+    public static final String SEQUENCE = "message_seq";
+    // Must match the allocationSize of Message's @SequenceGenerator so both hand out pooled-lo blocks.
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final IdSequenceService idSequenceService;
+
+    private long next;
+    private long upperBound;
+
+    public synchronized long nextId() {
+        if (next >= upperBound) {
+            next = idSequenceService.nextBlock(SEQUENCE);
+            upperBound = next + ALLOCATION_SIZE;
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,42 @@
+package com.studyapp.be.services;
+
+import com.studyapp.be.configs.SearchFunctionContributor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageSearchIndexService {
+    private static final String INDEX = "idx_message_content_fts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.chat.search.create-index:true}")
+    private boolean createIndex;
+
+    // CONCURRENTLY keeps message writes flowing while a large table is indexed for the first time.
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        if (!createIndex) {
+            return;
+        }
+        try {
+            Boolean valid = jdbcTemplate.query("SELECT i.indisvalid FROM pg_class c JOIN pg_index i ON i.indexrelid = c.oid WHERE c.relname = ?",
+                    rs -> rs.next() ? rs.getBoolean(1) : null, INDEX);
+            if (Boolean.FALSE.equals(valid)) {
+                // Left behind by an interrupted concurrent build; IF NOT EXISTS would keep it forever.
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + INDEX);
+            }
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + INDEX + " ON message USING GIN (" +
+                    String.format(SearchFunctionContributor.DOCUMENT, "content") + ")");
+        } catch (Exception exception) {
+            log.error("Create full-text index {} error: {}", INDEX, exception.getLocalizedMessage());
+        }
+    }
+}
@@ -1,37 +1,56 @@
 package com.studyapp.be.services;
 
+import com.studyapp.be.Utils;
+import com.studyapp.be.configs.SearchFunctionContributor;
 import com.studyapp.be.dao.ChatRoomDao;
 import com.studyapp.be.dao.MessageAttachmentDao;
 import com.studyapp.be.dao.MessageDao;
+import com.studyapp.be.dao.UserDao;
 import com.studyapp.be.dto.request.CreateMessageRequestDto;
+import com.studyapp.be.dto.response.CursorSliceResponseDto;
+import com.studyapp.be.dto.response.MessageHighlightDto;
 import com.studyapp.be.dto.response.MessageResponseDto;
 import com.studyapp.be.entities.File;
 import com.studyapp.be.entities.Message;
 import com.studyapp.be.entities.MessageAttachment;
 import com.studyapp.be.entities.User;
 import com.studyapp.be.enums.AppError;
+import com.studyapp.be.enums.MessageSearchMode;
 import com.studyapp.be.enums.MessageStatus;
 import com.studyapp.be.enums.MessageType;
 import com.studyapp.be.enums.ReplyTargetType;
 import com.studyapp.be.exceptions.AppException;
 import com.studyapp.be.mappers.MessageMapper;
+import com.studyapp.be.search.TextAnalyzer;
 import com.studyapp.be.specifications.MessageSpecification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.HtmlUtils;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -40,26 +59,86 @@ import java.util.stream.StreamSupport;
 @Service
 @RequiredArgsConstructor
 public class MessageService {
+    private static final String RELEVANCE_SORT = "relevance";
+    private static final int CANDIDATE_CHUNK_SIZE = 5000;
+
     private final MessageDao messageDao;
     private final MessageMapper messageMapper;
     private final ChatRoomDao chatRoomDao;
     private final FileService fileService;
     private final SecurityService securityService;
     private final MessageAttachmentDao messageAttachmentDao;
-    private final Executor asyncExecutor;
+    private final UserDao userDao;
+    private final MessageIdAllocator messageIdAllocator;
+    private final MessageWriteBehindService messageWriteBehindService;
+    private final RecentMessageCache recentMessageCache;
+    private final RoomSummaryService roomSummaryService;
+    private final SearchIndexService searchIndexService;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.attachments.stale-after-ms:3600000}")
+    private long attachmentsStaleAfterMs;
 
     @Transactional
     public MessageResponseDto createMessage(CreateMessageRequestDto messageRequestDto) {
+        return saveMessage(messageRequestDto, securityService.getUserFromRequest());
+    }
+
+    public MessageResponseDto sendTextMessage(CreateMessageRequestDto messageRequestDto, Long senderId) {
+        if (messageWriteBehindService.isEnabled()) {
+            MessageResponseDto queued = queueTextMessage(messageRequestDto, senderId);
+            if (queued != null) {
+                return queued;
+            }
+        }
+        return transactionTemplate.execute(status -> saveMessage(messageRequestDto, userDao.findById(senderId).orElseThrow(() -> new AppException(AppError.USER_NOT_FOUND))));
+    }
+
+    private MessageResponseDto queueTextMessage(CreateMessageRequestDto messageRequestDto, Long senderId) {
+        if ((messageRequestDto.getRepliedTargetId() != null) != (messageRequestDto.getRepliedTargetType() != null)) {
+            throw new IllegalArgumentException("RepliedTargetId & RepliedTargetType must be both together");
+        }
+        if (!chatRoomDao.existsById(messageRequestDto.getRoomId())) {
+            throw new AppException(AppError.CHATROOM_NOT_FOUND);
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Message message = messageMapper.dtoToEntity(messageRequestDto);
+        message.setId(messageIdAllocator.nextId());
+        message.setSender(userDao.findById(senderId).orElseThrow(() -> new AppException(AppError.USER_NOT_FOUND)));
+        message.setStatus(MessageStatus.SENT);
+        message.setIsDeleted(false);
+        message.setCreatedAt(now);
+        message.setUpdatedAt(now);
+        if (message.getRepliedTargetType() == ReplyTargetType.MESSAGE && messageWriteBehindService.isPending(message.getRepliedTargetId())) {
+            // Replying to a message that is still queued: write it out so it can be loaded as the reply target.
+            messageWriteBehindService.flush();
+        }
+        // Resolve the reply target before the message becomes durable, so a bad target fails the send instead of being saved.
+        MessageResponseDto messageResponseDto = message.getRepliedTargetId() == null
+                ? toResponseDtos(List.of(message)).get(0)
+                : transactionTemplate.execute(status -> toResponseDtos(List.of(message)).get(0));
+        if (!messageWriteBehindService.submit(message, messageRequestDto.getRoomId())) {
+            return null;
+        }
+        recentMessageCache.append(messageRequestDto.getRoomId(), messageResponseDto);
+        searchIndexService.indexMessage(message.getId(), message.getContent(), now, messageRequestDto.getRoomId(), senderId);
+        return messageResponseDto;
+    }
+
+    private MessageResponseDto saveMessage(CreateMessageRequestDto messageRequestDto, User sender) {
         Message repliedMessage = null;
         MessageAttachment repliedMessageAttachment = null;
         if (messageRequestDto.getRepliedTargetType() != null && messageRequestDto.getRepliedTargetId() != null) {
             switch (messageRequestDto.getRepliedTargetType()) {
                 case MESSAGE: {
                     repliedMessage = messageDao.findById(messageRequestDto.getRepliedTargetId()).orElseThrow(() -> new AppException(AppError.MESSAGE_NOT_FOUND));
+                    initializeRepliedMessage(repliedMessage);
                     break;
                 }
                 case ATTACHMENT: {
                     repliedMessageAttachment = messageAttachmentDao.findById(messageRequestDto.getRepliedTargetId()).orElseThrow(() -> new AppException(AppError.FILE_NOT_FOUND));
+                    Hibernate.initialize(repliedMessageAttachment.getReactions());
                     break;
                 }
             }
@@ -67,28 +146,6 @@ public class MessageService {
 
         Message message = messageMapper.dtoToEntity(messageRequestDto);
 
-        List<File> uploadedFiles = null;
-        if (messageRequestDto.getMultipartFiles() != null) {
-            List<CompletableFuture<File>> futures = messageRequestDto.getMultipartFiles().stream()
-                    .filter(Objects::nonNull)
-                    .map(file -> CompletableFuture.supplyAsync(() -> {
-                        try {
-                            return fileService.upload(
-                                    file
-                            );
-                        } catch (Exception e) {
-                            log.error("Lỗi upload file", e);
-                            return null;
-                        }
-                    }, asyncExecutor))
-                    .toList();
-
-            uploadedFiles = futures.stream()
-                    .map(CompletableFuture::join)
-                    .filter(Objects::nonNull)
-                    .toList();
-        }
-        User sender = securityService.getUserFromRequest();
         message.setSender(sender);
         message.setStatus(MessageStatus.SENT);
         message.setRoom(chatRoomDao.findById(messageRequestDto.getRoomId()).orElseThrow(() -> new AppException(AppError.CHATROOM_NOT_FOUND)));
@@ -97,16 +154,22 @@ public class MessageService {
             throw new IllegalArgumentException("RepliedTargetId & RepliedTargetType must be both together");
         }
 
-        if (uploadedFiles != null) {
-            List<MessageAttachment> attachments = uploadedFiles.stream().map(file -> {
-                MessageAttachment attachment = new MessageAttachment();
-                attachment.setFile(file);
-                attachment.setMessage(message);
-                return attachment;
-            }).toList();
-            message.setAttachments(attachments);
+        List<FileService.StagedFile> stagedFiles = messageRequestDto.getMultipartFiles() == null ? Collections.emptyList()
+                : fileService.stage(messageRequestDto.getMultipartFiles().stream().filter(Objects::nonNull).toList());
+        Message message1;
+        try {
+            message.setPendingAttachments(stagedFiles.size());
+            message1 = messageDao.save(message);
+            roomSummaryService.recordMessages(List.of(message1.getId()));
+        } catch (RuntimeException exception) {
+            fileService.discard(stagedFiles);
+            throw exception;
+        }
+        if (!stagedFiles.isEmpty()) {
+            Long messageId = message1.getId();
+            Long roomId = message1.getRoom().getId();
+            fileService.uploadAfterCommit(stagedFiles, sender, files -> finalizeAttachments(messageId, roomId, files));
         }
-        Message message1 = messageDao.save(message);
         MessageResponseDto messageResponseDto = messageMapper.entityToDto(message1);
         if (messageResponseDto.getRepliedTargetType() != null) {
             switch (messageResponseDto.getRepliedTargetType()) {
@@ -118,14 +181,54 @@ public class MessageService {
                     messageResponseDto.setRepliedTarget(repliedMessageAttachment);
             }
         }
+        recentMessageCache.appendAfterCommit(message1.getRoom().getId(), messageResponseDto);
+        searchIndexService.indexMessage(message1.getId(), message1.getContent(), message1.getCreatedAt(), message1.getRoom().getId(), sender.getId());
 
         return messageResponseDto;
     }
 
+    // Uploads lost to a crash between commit and upload never call back; whatever they left pending is reported as failed.
+    @Scheduled(fixedDelayString = "${app.attachments.sweep-interval-ms:600000}")
+    public void failStaleAttachments() {
+        LocalDateTime before = LocalDateTime.now().minus(attachmentsStaleAfterMs, ChronoUnit.MILLIS);
+        messageDao.findWithPendingAttachmentsBefore(before)
+                .forEach(message -> finalizeAttachments(message.getId(), message.getRoom().getId(), List.of()));
+    }
+
+    private void finalizeAttachments(Long messageId, Long roomId, List<File> files) {
+        MessageResponseDto messageResponseDto = transactionTemplate.execute(status -> {
+            Message message = messageDao.findById(messageId).orElse(null);
+            if (message == null) {
+                log.warn("Message {} was removed before its attachments were finalized", messageId);
+                return null;
+            }
+            if (!message.settleAttachments(files.size())) {
+                return null;
+            }
+            files.forEach(file -> {
+                MessageAttachment attachment = new MessageAttachment();
+                attachment.setFile(file);
+                attachment.setMessage(message);
+                message.getAttachments().add(attachment);
+            });
+            if (message.getFailedAttachments() > 0) {
+                log.warn("Message {} lost {} attachments", messageId, message.getFailedAttachments());
+            }
+            MessageResponseDto updated = toResponseDtos(List.of(messageDao.save(message))).get(0);
+            recentMessageCache.replaceAfterCommit(roomId, updated);
+            return updated;
+        });
+        if (messageResponseDto != null) {
+            messagingTemplate.convertAndSend("/topic/chatRooms/" + roomId + "/updatedMessage", messageResponseDto);
+        }
+    }
 
     @Transactional
     public void deleteMessage(Long id) {
         Message message = messageDao.findById(id).orElseThrow(() -> new AppException(AppError.MESSAGE_NOT_FOUND));
+        recentMessageCache.evictAfterCommit(message.getRoom().getId());
+        roomSummaryService.removeMessage(message.getRoom().getId(), id);
+        searchIndexService.removeMessage(id);
         messageDao.delete(message);
     }
 
@@ -134,20 +237,136 @@ public class MessageService {
         Message message = messageDao.findById(id).orElseThrow(() -> new AppException(AppError.MESSAGE_NOT_FOUND));
         message.setIsDeleted(true);
         messageDao.save(message);
+        recentMessageCache.evictAfterCommit(message.getRoom().getId());
+        roomSummaryService.removeMessage(message.getRoom().getId(), id);
+        searchIndexService.removeMessage(id);
     }
 
+    @Transactional(readOnly = true)
     public Page<MessageResponseDto> searchMessages(
             Long senderId, Long roomId, MessageStatus status, MessageType type,
             Boolean isDeleted, LocalDateTime startDate, LocalDateTime endDate, String keyword, Boolean isHasFiles,
-            Pageable pageable, boolean paged) {
+            MessageSearchMode searchMode, Pageable pageable, boolean paged) {
+
+        if (roomId != null && paged && senderId == null && status == null && type == null && isDeleted == null
+                && startDate == null && endDate == null && !StringUtils.hasText(keyword) && isHasFiles == null) {
+            Optional<Page<MessageResponseDto>> cached = findRecentPage(roomId, pageable);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        boolean fullText = searchMode == MessageSearchMode.FULL_TEXT && StringUtils.hasText(keyword);
+        boolean relevanceSort = pageable.getSort().getOrderFor(RELEVANCE_SORT) != null;
+        // The index only holds live messages, so a search for deleted ones goes to the database.
+        if (fullText && !Boolean.TRUE.equals(isDeleted)) {
+            Optional<List<Long>> candidates = searchIndexService.searchMessages(keyword, roomId, senderId);
+            if (candidates.isPresent()) {
+                return searchIndexedMessages(candidates.get(), senderId, roomId, status, type, isDeleted, startDate, endDate,
+                        keyword, isHasFiles, relevanceSort, pageable, paged);
+            }
+        }
+        boolean orderByRank = fullText && relevanceSort;
+        Specification<Message> spec = MessageSpecification.combineAll(
+                senderId, roomId, status, type, isDeleted, startDate, endDate, keyword, isHasFiles, searchMode, orderByRank
+        );
+
+        Pageable query = relevanceSort ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : pageable;
+        Page<Message> messages = messageDao.findAll(spec, paged ? query : Pageable.unpaged());
+        List<MessageResponseDto> dtos = toResponseDtos(messages.getContent());
+        if (fullText && !dtos.isEmpty()) {
+            Map<Long, String> highlights = messageDao.findHighlights(dtos.stream().map(MessageResponseDto::getId).toList(), keyword).stream()
+                    .filter(highlight -> highlight.getHighlight() != null)
+                    .collect(Collectors.toMap(MessageHighlightDto::getMessageId, highlight -> toHtmlHighlight(highlight.getHighlight())));
+            dtos.forEach(dto -> dto.setHighlight(highlights.get(dto.getId())));
+        }
+
+        return new PageImpl<>(dtos, pageable, messages.getTotalElements());
+    }
 
+    private static String toHtmlHighlight(String headline) {
+        return HtmlUtils.htmlEscape(headline)
+                .replace(String.valueOf(SearchFunctionContributor.HEADLINE_START), "<mark>")
+                .replace(String.valueOf(SearchFunctionContributor.HEADLINE_STOP), "</mark>");
+    }
+
+    // The embedded index only narrows the candidates; the remaining filters and paging still run in the database.
+    // Candidates are walked newest first in chunks, so old matches are still found when newer candidates are filtered out.
+    private Page<MessageResponseDto> searchIndexedMessages(
+            List<Long> candidates, Long senderId, Long roomId, MessageStatus status, MessageType type,
+            Boolean isDeleted, LocalDateTime startDate, LocalDateTime endDate, String keyword, Boolean isHasFiles,
+            boolean relevanceSort, Pageable pageable, boolean paged) {
         Specification<Message> spec = MessageSpecification.combineAll(
-                senderId, roomId, status, type, isDeleted, startDate, endDate, keyword, isHasFiles
+                senderId, roomId, status, type, isDeleted, startDate, endDate, null, isHasFiles
         );
+        boolean filtered = status != null || type != null || isDeleted != null
+                || (startDate != null && endDate != null) || Boolean.TRUE.equals(isHasFiles);
+        Sort sort = relevanceSort ? Sort.by(Sort.Direction.DESC, "createdAt", "id") : pageable.getSort();
+        long skip = paged ? pageable.getOffset() : 0;
+        long wanted = paged ? pageable.getPageSize() : Long.MAX_VALUE;
+        List<Message> content = new ArrayList<>();
+        long total = 0;
+        for (int from = 0; from < candidates.size(); from += CANDIDATE_CHUNK_SIZE) {
+            List<Long> chunk = candidates.subList(from, Math.min(from + CANDIDATE_CHUNK_SIZE, candidates.size()));
+            Specification<Message> chunkSpec = spec.and((root, query, criteriaBuilder) -> root.get("id").in(chunk));
+            long matches = filtered ? messageDao.count(chunkSpec) : chunk.size();
+            total += matches;
+            if (content.size() >= wanted || skip >= matches) {
+                skip -= Math.min(skip, matches);
+                continue;
+            }
+            int limit = (int) Math.min(matches, skip + wanted - content.size());
+            List<Message> rows = messageDao.findAll(chunkSpec, PageRequest.of(0, limit, sort)).getContent();
+            content.addAll(rows.subList((int) Math.min(skip, rows.size()), rows.size()));
+            skip = 0;
+        }
+        Set<String> terms = TextAnalyzer.terms(keyword);
+        List<MessageResponseDto> dtos = toResponseDtos(content);
+        dtos.forEach(dto -> dto.setHighlight(TextAnalyzer.highlight(dto.getContent(), terms)));
+        return new PageImpl<>(dtos, pageable, total);
+    }
+
+    private Optional<Page<MessageResponseDto>> findRecentPage(Long roomId, Pageable pageable) {
+        if (!recentMessageCache.isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<Page<MessageResponseDto>> cached = recentMessageCache.findPage(roomId, pageable);
+        // Only a newest-first page inside the cached window is certain to be answered by a rebuilt entry.
+        Sort.Order order = pageable.getSort().getOrderFor("createdAt");
+        if (cached.isPresent() || order == null || order.isAscending()
+                || pageable.getOffset() + pageable.getPageSize() > recentMessageCache.getMessagesPerRoom()) {
+            return cached;
+        }
+        long version = recentMessageCache.version(roomId);
+        List<Message> latest = new ArrayList<>(messageDao.findLatestByRoomId(roomId, PageRequest.of(0, recentMessageCache.getMessagesPerRoom())).getContent());
+        Collections.reverse(latest);
+        recentMessageCache.put(roomId, version, toResponseDtos(latest), messageDao.countByRoomId(roomId));
+        return recentMessageCache.findPage(roomId, pageable);
+    }
 
-        Page<Message> messages = messageDao.findAll(spec, paged ? pageable : Pageable.unpaged());
+    @Transactional(readOnly = true)
+    public CursorSliceResponseDto<MessageResponseDto> scrollMessages(Long roomId, LocalDateTime beforeCreatedAt, Long beforeId, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<Message> messages = beforeCreatedAt == null || beforeId == null
+                ? messageDao.findLatestByRoomId(roomId, pageable)
+                : messageDao.findByRoomIdBefore(roomId, beforeCreatedAt, beforeId, pageable);
         List<Message> messageList = messages.getContent();
 
+        String nextCursor = null;
+        if (messages.hasNext() && !messageList.isEmpty()) {
+            Message last = messageList.get(messageList.size() - 1);
+            nextCursor = Utils.encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        return CursorSliceResponseDto.<MessageResponseDto>builder()
+                .content(toResponseDtos(messageList))
+                .size(size)
+                .hasNext(messages.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private List<MessageResponseDto> toResponseDtos(List<Message> messageList) {
         List<Long> repliedMessageIds = messageList.stream()
                 .filter(m -> m.getRepliedTargetType() != null && m.getRepliedTargetType() == ReplyTargetType.MESSAGE)
                 .map(Message::getRepliedTargetId)
@@ -163,14 +382,16 @@ public class MessageService {
                 .collect(Collectors.toList());
 
         Map<Long, Message> repliedMessages = repliedMessageIds.isEmpty() ? Collections.emptyMap() :
-                StreamSupport.stream(messageDao.findAllById(repliedMessageIds).spliterator(), false)
+                messageDao.findAllByIdIn(repliedMessageIds).stream()
+                        .peek(this::initializeRepliedMessage)
                         .collect(Collectors.toMap(Message::getId, Function.identity()));
 
         Map<Long, MessageAttachment> repliedAttachments = repliedAttachmentIds.isEmpty() ? Collections.emptyMap() :
                 StreamSupport.stream(messageAttachmentDao.findAllById(repliedAttachmentIds).spliterator(), false)
+                        .peek(attachment -> Hibernate.initialize(attachment.getReactions()))
                         .collect(Collectors.toMap(MessageAttachment::getId, Function.identity()));
 
-        List<MessageResponseDto> dtos = messageList.stream().map(message -> {
+        return messageList.stream().map(message -> {
             MessageResponseDto dto = messageMapper.entityToDto(message);
             if (dto.getRepliedTargetType() != null) {
                 switch (dto.getRepliedTargetType()) {
@@ -194,7 +415,12 @@ public class MessageService {
             }
             return dto;
         }).collect(Collectors.toList());
+    }
 
-        return new PageImpl<>(dtos, pageable, messages.getTotalElements());
+    // Replied targets are serialized as entities, possibly after the session is closed (STOMP, recent cache).
+    private void initializeRepliedMessage(Message message) {
+        Hibernate.initialize(message.getReactions());
+        Hibernate.initialize(message.getAttachments());
+        message.getAttachments().forEach(attachment -> Hibernate.initialize(attachment.getReactions()));
     }
 }
@@ -0,0 +1,392 @@
+package com.studyapp.be.services;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studyapp.be.entities.Message;
+import com.studyapp.be.enums.ReplyTargetType;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageWriteBehindService implements SmartInitializingSingleton {
+    private static final String INSERT_SQL = "INSERT INTO message (id, room_id, sender_id, content, created_at, updated_at, " +
+            "is_deleted, status, replied_target_id, replied_target_type, pending_attachments) " +
+            "VALUES (?, ?, ?, ?, ?, ?, false, 'SENT', ?, ?, 0) ON CONFLICT (id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor asyncExecutor;
+    private final RoomSummaryService roomSummaryService;
+
+    @Getter
+    @Value("${app.chat.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.chat.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${app.chat.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.chat.write-behind.recovery-log:data/message-write-behind.log}")
+    private String recoveryLog;
+
+    @Value("${app.chat.write-behind.fsync:true}")
+    private boolean fsync;
+
+    private final Object appendLock = new Object();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    // Unflushed messages per log generation; a generation's file is deleted once it is rotated out and drained.
+    private final Map<Long, Integer> outstanding = new HashMap<>();
+    private BlockingQueue<PendingMessage> ring;
+    private List<PendingMessage> retry = new ArrayList<>();
+    private Path logPath;
+    private long generation;
+    private FileChannel logChannel;
+
+    // Runs once every singleton, including the EntityManagerFactory and its schema update, exists and before the web server starts.
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ring = new ArrayBlockingQueue<>(capacity);
+            logPath = Paths.get(recoveryLog).toAbsolutePath();
+            if (logPath.getParent() != null) {
+                Files.createDirectories(logPath.getParent());
+            }
+            List<Path> previous = logFiles();
+            generation = previous.stream().mapToLong(this::generationOf).max().orElse(0) + 1;
+            recover(previous);
+            logChannel = openGeneration(generation);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public boolean submit(Message message, Long roomId) {
+        if (!enabled) {
+            return false;
+        }
+        PendingMessage pending = new PendingMessage(message.getId(), roomId, message.getSender().getId(), message.getContent(),
+                message.getCreatedAt(), message.getRepliedTargetId(), message.getRepliedTargetType(), 0);
+        synchronized (appendLock) {
+            pending.setGeneration(generation);
+            if (ring.remainingCapacity() == 0) {
+                return false;
+            }
+            try {
+                ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(pending) + "\n").getBytes(StandardCharsets.UTF_8));
+                while (line.hasRemaining()) {
+                    logChannel.write(line);
+                }
+                if (fsync) {
+                    logChannel.force(false);
+                }
+            } catch (IOException exception) {
+                log.error("Append message {} to recovery log error: {}", pending.getId(), exception.getLocalizedMessage());
+                return false;
+            }
+            pendingIds.add(pending.getId());
+            outstanding.merge(generation, 1, Integer::sum);
+            ring.add(pending);
+        }
+        if (ring.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            asyncExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+        return true;
+    }
+
+    public boolean isPending(Long messageId) {
+        return messageId != null && pendingIds.contains(messageId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            rotateLog();
+            while (true) {
+                List<PendingMessage> batch = new ArrayList<>(retry);
+                retry = new ArrayList<>();
+                ring.drainTo(batch, Math.max(0, batchSize - batch.size()));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<PendingMessage> left;
+                try {
+                    left = insertOrDeadLetter(batch);
+                } catch (Exception exception) {
+                    log.error("Flush {} messages error: {}", batch.size(), exception.getLocalizedMessage());
+                    retry = batch;
+                    return;
+                }
+                List<PendingMessage> done = batch.subList(0, batch.size() - left.size());
+                done.forEach(pending -> pendingIds.remove(pending.getId()));
+                release(done);
+                if (!left.isEmpty()) {
+                    retry = new ArrayList<>(left);
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        synchronized (appendLock) {
+            logChannel.close();
+            if (outstanding.isEmpty()) {
+                deleteGeneration(generation);
+            }
+        }
+    }
+
+    private void insert(List<PendingMessage> batch) {
+        insertRows(batch);
+        recordSummaries(batch);
+    }
+
+    private void recordSummaries(List<PendingMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Comparator<PendingMessage> order = Comparator.comparing(PendingMessage::getCreatedAt).thenComparing(PendingMessage::getId);
+        roomSummaryService.recordMessages(batch.stream()
+                .collect(Collectors.toMap(PendingMessage::getRoomId, Function.identity(), BinaryOperator.maxBy(order)))
+                .values().stream().map(PendingMessage::getId).toList());
+    }
+
+    // A batch the database rejects is retried row by row, so one message it can never accept (its room or sender is
+    // gone, or the data is invalid) is dead-lettered instead of blocking everything queued behind it.
+    // Returns the tail of the batch left unwritten by a transient failure, to be retried.
+    private List<PendingMessage> insertOrDeadLetter(List<PendingMessage> batch) {
+        try {
+            insert(batch);
+            return List.of();
+        } catch (DataIntegrityViolationException exception) {
+            log.warn("Insert {} messages rejected, inserting one by one: {}", batch.size(), exception.getLocalizedMessage());
+        }
+        List<PendingMessage> inserted = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingMessage pending = batch.get(i);
+            try {
+                insertRows(List.of(pending));
+                inserted.add(pending);
+            } catch (DataIntegrityViolationException exception) {
+                deadLetter(pending, exception);
+            } catch (RuntimeException exception) {
+                log.error("Insert message {} error: {}", pending.getId(), exception.getLocalizedMessage());
+                recordSummaries(inserted);
+                return batch.subList(i, batch.size());
+            }
+        }
+        recordSummaries(inserted);
+        return List.of();
+    }
+
+    private void deadLetter(PendingMessage pending, Exception cause) {
+        String entry;
+        try {
+            entry = objectMapper.writeValueAsString(pending);
+        } catch (IOException exception) {
+            entry = String.valueOf(pending.getId());
+        }
+        log.error("Dead-letter message {}: {} ({})", pending.getId(), entry, cause.getLocalizedMessage());
+    }
+
+    private void insertRows(List<PendingMessage> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, pending) -> {
+            Timestamp createdAt = Timestamp.valueOf(pending.getCreatedAt());
+            statement.setLong(1, pending.getId());
+            statement.setLong(2, pending.getRoomId());
+            statement.setLong(3, pending.getSenderId());
+            statement.setString(4, pending.getContent());
+            statement.setTimestamp(5, createdAt);
+            statement.setTimestamp(6, createdAt);
+            if (pending.getRepliedTargetId() != null) {
+                statement.setLong(7, pending.getRepliedTargetId());
+            } else {
+                statement.setNull(7, Types.BIGINT);
+            }
+            statement.setString(8, pending.getRepliedTargetType() != null ? pending.getRepliedTargetType().name() : null);
+        });
+    }
+
+    private void rotateLog() {
+        synchronized (appendLock) {
+            if (outstanding.getOrDefault(generation, 0) == 0) {
+                return;
+            }
+            try {
+                FileChannel next = openGeneration(generation + 1);
+                logChannel.close();
+                logChannel = next;
+                generation++;
+            } catch (IOException exception) {
+                log.warn("Rotate recovery log error: {}", exception.getLocalizedMessage());
+            }
+        }
+    }
+
+    private void release(List<PendingMessage> batch) {
+        synchronized (appendLock) {
+            for (PendingMessage pending : batch) {
+                Integer left = outstanding.computeIfPresent(pending.getGeneration(), (key, count) -> count > 1 ? count - 1 : null);
+                if (left == null && pending.getGeneration() != generation) {
+                    deleteGeneration(pending.getGeneration());
+                }
+            }
+        }
+    }
+
+    private void deleteGeneration(long logGeneration) {
+        try {
+            Files.deleteIfExists(generationPath(logGeneration));
+        } catch (IOException exception) {
+            log.warn("Delete recovery log generation {} error: {}", logGeneration, exception.getLocalizedMessage());
+        }
+    }
+
+    private FileChannel openGeneration(long logGeneration) throws IOException {
+        return FileChannel.open(generationPath(logGeneration), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path generationPath(long logGeneration) {
+        return logPath.resolveSibling(logPath.getFileName() + "." + logGeneration);
+    }
+
+    private List<Path> logFiles() throws IOException {
+        String prefix = logPath.getFileName() + ".";
+        try (Stream<Path> files = Files.list(logPath.getParent())) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)
+                            && file.getFileName().toString().substring(prefix.length()).chars().allMatch(Character::isDigit))
+                    .sorted(Comparator.comparingLong(this::generationOf))
+                    .toList();
+        }
+    }
+
+    private long generationOf(Path file) {
+        return Long.parseLong(file.getFileName().toString().substring(logPath.getFileName().toString().length() + 1));
+    }
+
+    private void recover(List<Path> files) throws IOException {
+        int recovered = 0;
+        for (Path file : files) {
+            try {
+                recovered += replay(file);
+                Files.delete(file);
+            } catch (RuntimeException exception) {
+                // Rows are inserted with ON CONFLICT DO NOTHING, so replaying the whole file on the next start is safe.
+                log.error("Replay recovery log {} error, keeping it for the next start: {}", file, exception.getLocalizedMessage());
+            }
+        }
+        if (recovered > 0) {
+            log.info("Recovered {} unflushed messages", recovered);
+        }
+    }
+
+    private int replay(Path file) throws IOException {
+        int replayed = 0;
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, PendingMessage.class));
+                } catch (IOException exception) {
+                    log.warn("Skip unreadable recovery log entry: {}", exception.getLocalizedMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    replayed += replayBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        return replayed + replayBatch(batch);
+    }
+
+    private int replayBatch(List<PendingMessage> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<PendingMessage> left = insertOrDeadLetter(batch);
+        if (!left.isEmpty()) {
+            throw new IllegalStateException(left.size() + " messages could not be inserted");
+        }
+        return batch.size();
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendingMessage {
+        private Long id;
+        private Long roomId;
+        private Long senderId;
+        private String content;
+        private LocalDateTime createdAt;
+        private Long repliedTargetId;
+        private ReplyTargetType repliedTargetType;
+        @JsonIgnore
+        private long generation;
+    }
+}
@@ -3,6 +3,7 @@ package com.studyapp.be.services;
 import com.studyapp.be.dao.*;
 import com.studyapp.be.dto.request.CreateCommentRequestDto;
 import com.studyapp.be.dto.response.CommentResponseDto;
+import com.studyapp.be.dto.response.UserReactionDto;
 import com.studyapp.be.entities.*;
 import com.studyapp.be.enums.AppError;
 import com.studyapp.be.exceptions.AppException;
@@ -15,7 +16,11 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Set;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +33,7 @@ public class PostCommentService {
     private final PostDao postDao;
     private final FileService fileService;
     private final SecurityService securityService;
+    private final PostCounterService postCounterService;
 
     @Transactional
     public CommentResponseDto createComment(Long postId, CreateCommentRequestDto dto) {
@@ -50,22 +56,19 @@ public class PostCommentService {
         }
         comment.setPost(post);
         PostComment savedComment = commentDao.save(comment);
-        return getCommentResponseDto(savedComment);
+        postCounterService.incrementCommentCount(post.getId());
+        return getCommentResponseDto(savedComment, null);
     }
 
-    private CommentResponseDto getCommentResponseDto(PostComment savedComment) {
+    private CommentResponseDto getCommentResponseDto(PostComment savedComment, UserReactionDto userReaction) {
         CommentResponseDto responseDto = commentMapper.entityToDto(savedComment);
         if (savedComment.getParent() != null) {
             responseDto.setParentId(savedComment.getParent().getId());
         }
-        User currentUser = securityService.getUserFromRequest();
-        Set<PostCommentReaction> reactions = savedComment.getReactions();
-        if (currentUser != null && reactions != null) {
-            reactions.stream().filter(reaction -> reaction.getCreator().getId().equals(currentUser.getId())).findFirst().ifPresent(reaction -> {
-                responseDto.setHasReacted(true);
-                responseDto.setUserReactionEmoji(reaction.getEmoji());
-                responseDto.setUserReactionId(reaction.getId());
-            });
+        if (userReaction != null) {
+            responseDto.setHasReacted(true);
+            responseDto.setUserReactionEmoji(userReaction.getEmoji());
+            responseDto.setUserReactionId(userReaction.getReactionId());
         }
         responseDto.setTotalChildren(commentDao.countByParent(savedComment));
         responseDto.setReactionSummary(postCommentReactionDao.getReactionSummaryByComment(savedComment));
@@ -87,7 +90,16 @@ public class PostCommentService {
             spec = spec.and(PostCommentSpecification.hasPostId(postId));
         }
 
-        return commentDao.findAll(spec, pageable).map(this::getCommentResponseDto);
+        Page<PostComment> comments = commentDao.findAll(spec, pageable);
+        User currentUser = securityService.getUserFromRequest();
+        Map<Long, UserReactionDto> userReactions = Collections.emptyMap();
+        if (currentUser != null && comments.hasContent()) {
+            List<Long> commentIds = comments.getContent().stream().map(PostComment::getId).toList();
+            userReactions = postCommentReactionDao.findUserReactionsByCommentIds(currentUser.getId(), commentIds).stream()
+                    .collect(Collectors.toMap(UserReactionDto::getTargetId, Function.identity(), (first, second) -> first));
+        }
+        Map<Long, UserReactionDto> reactionsByCommentId = userReactions;
+        return comments.map(comment -> getCommentResponseDto(comment, reactionsByCommentId.get(comment.getId())));
     }
 
 }
@@ -0,0 +1,128 @@
+package com.studyapp.be.services;
+
+import com.studyapp.be.dao.PostDao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostCounterService {
+    private final PostDao postDao;
+    private final FeedService feedService;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.post-counters.reconcile-on-startup:false}")
+    private boolean reconcileOnStartup;
+
+    @Value("${app.post-counters.reconcile-lock-timeout-ms:10000}")
+    private long lockTimeoutMs;
+
+    @Value("${app.post-counters.reconcile-chunk-size:1000}")
+    private int chunkSize;
+
+    @Transactional
+    public void incrementCommentCount(Long postId) {
+        postDao.lockForCounters(postId);
+        postDao.addToCommentCount(postId, 1);
+        addToEngagementScore(postId, 1);
+    }
+
+    @Transactional
+    public void decrementCommentCount(Long postId) {
+        postDao.lockForCounters(postId);
+        postDao.addToCommentCount(postId, -1);
+        addToEngagementScore(postId, -1);
+    }
+
+    @Transactional
+    public void incrementReactionCount(Long postId, String emoji) {
+        postDao.lockForCounters(postId);
+        postDao.incrementReactionCount(postId, emoji);
+        addToEngagementScore(postId, 1);
+    }
+
+    @Transactional
+    public void decrementReactionCount(Long postId, String emoji) {
+        postDao.lockForCounters(postId);
+        postDao.decrementReactionCount(postId, emoji);
+        postDao.deleteEmptyReactionCounts(postId);
+        addToEngagementScore(postId, -1);
+    }
+
+    @Transactional
+    public void changeReactionEmoji(Long postId, String oldEmoji, String newEmoji) {
+        if (oldEmoji.equals(newEmoji)) return;
+        postDao.lockForCounters(postId);
+        postDao.decrementReactionCount(postId, oldEmoji);
+        postDao.deleteEmptyReactionCounts(postId);
+        postDao.incrementReactionCount(postId, newEmoji);
+    }
+
+    private void addToEngagementScore(Long postId, long delta) {
+        postDao.addToEngagementScore(postId, delta);
+        feedService.onEngagementChanged(postId, delta);
+    }
+
+    /**
+     * Corrects only the counters that drifted, one id range of posts per transaction. The range's post rows are
+     * locked first, as every live counter write does, so a live increment waits for the range instead of being
+     * overwritten by counts read before it committed.
+     */
+    @Scheduled(cron = "${app.post-counters.reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        Reconciled reconciled = new Reconciled();
+        Long afterId = 0L;
+        while (afterId != null) {
+            Long from = afterId;
+            afterId = transactionTemplate.execute(status -> reconcileChunk(from, reconciled));
+        }
+        if (reconciled.scores > 0) {
+            feedService.syncScores();
+        }
+        log.info("Reconciled post counters: {} comment counts, {} reaction summary rows, {} scores corrected",
+                reconciled.comments, reconciled.reactionRows, reconciled.scores);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (reconcileOnStartup) {
+            reconcile();
+        }
+    }
+
+    private Long reconcileChunk(Long afterId, Reconciled reconciled) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeoutMs + "ms'");
+        List<Long> postIds = postDao.lockForCountersAfter(afterId, chunkSize);
+        if (postIds.isEmpty()) {
+            return null;
+        }
+        Long fromId = postIds.get(0);
+        Long toId = postIds.get(postIds.size() - 1);
+        reconciled.comments += postDao.reconcileCommentCounts(fromId, toId);
+        reconciled.reactionRows += postDao.deleteStaleReactionCounts(fromId, toId) + postDao.reconcileReactionCounts(fromId, toId);
+        reconciled.scores += postDao.reconcileEngagementScores(fromId, toId);
+        return postIds.size() < chunkSize ? null : toId;
+    }
+
+    private static class Reconciled {
+        private int comments;
+        private int reactionRows;
+        private int scores;
+    }
+}
@@ -1,12 +1,14 @@
 package com.studyapp.be.services;
 
-import com.studyapp.be.dao.PostCommentDao;
+import com.studyapp.be.Utils;
 import com.studyapp.be.dao.PostDao;
 import com.studyapp.be.dao.PostReactionDao;
 import com.studyapp.be.dao.UserDao;
 import com.studyapp.be.dto.request.CreatePostRequestDto;
+import com.studyapp.be.dto.response.CursorSliceResponseDto;
 import com.studyapp.be.dto.response.PostResponseDto;
 import com.studyapp.be.dto.response.ReactionResponseDto;
+import com.studyapp.be.dto.response.UserReactionDto;
 import com.studyapp.be.entities.*;
 import com.studyapp.be.enums.AppError;
 import com.studyapp.be.exceptions.AppException;
@@ -14,20 +16,25 @@ import com.studyapp.be.mappers.PostMapper;
 import com.studyapp.be.mappers.ReactionMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -38,12 +45,18 @@ public class PostService {
     private final PostMapper postMapper;
     private final UserDao userDao;
     private final FileService fileService;
-    private final Executor asyncExecutor;
     private final ReactionMapper reactionMapper;
     private final PostReactionDao reactionDao;
-    private final PostCommentDao postCommentDao;
     private final PostReactionDao postReactionDao;
     private final SecurityService securityService;
+    private final PostCounterService postCounterService;
+    private final FeedService feedService;
+    private final SearchIndexService searchIndexService;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.attachments.stale-after-ms:3600000}")
+    private long attachmentsStaleAfterMs;
 
 
     @Transactional
@@ -59,45 +72,77 @@ public class PostService {
             post.setSharedPost(sharedPost);
         }
 
-        if (createPostRequestDto.getFiles() != null && !createPostRequestDto.getFiles().isEmpty()) {
-            List<CompletableFuture<File>> futures = createPostRequestDto.getFiles().stream().filter(Objects::nonNull).map(file -> CompletableFuture.supplyAsync(() -> fileService.upload(file), asyncExecutor)).toList();
-            Set<PostAttachment> attachments = futures.stream().map(CompletableFuture::join).filter(Objects::nonNull).map(file -> {
-                PostAttachment attachment = new PostAttachment();
-                attachment.setFile(file);
-                attachment.setPost(post);
-                return attachment;
-            }).collect(Collectors.toSet());
-            post.setAttachments(attachments);
+        List<FileService.StagedFile> stagedFiles = createPostRequestDto.getFiles() == null ? Collections.emptyList()
+                : fileService.stage(createPostRequestDto.getFiles().stream().filter(Objects::nonNull).toList());
+        Post savedPost;
+        try {
+            post.setPendingAttachments(stagedFiles.size());
+            savedPost = postDao.save(post);
+            feedService.onPostCreated(savedPost);
+            searchIndexService.indexPost(savedPost.getId(), savedPost.getContent(), savedPost.getCreatedAt(), user.getId());
+        } catch (RuntimeException exception) {
+            fileService.discard(stagedFiles);
+            throw exception;
+        }
+        if (!stagedFiles.isEmpty()) {
+            Long postId = savedPost.getId();
+            fileService.uploadAfterCommit(stagedFiles, user, files -> finalizeAttachments(postId, files));
         }
-        Post savedPost = postDao.save(post);
 
         return postMapper.entityToDto(savedPost);
     }
 
-    public Page<PostResponseDto> getRankedPosts(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        User user = securityService.getUserFromRequest();
+    // Uploads lost to a crash between commit and upload never call back; whatever they left pending is reported as failed.
+    @Scheduled(fixedDelayString = "${app.attachments.sweep-interval-ms:600000}")
+    public void failStaleAttachments() {
+        LocalDateTime before = LocalDateTime.now().minus(attachmentsStaleAfterMs, ChronoUnit.MILLIS);
+        postDao.findIdsWithPendingAttachmentsBefore(before).forEach(postId -> finalizeAttachments(postId, List.of()));
+    }
 
-        return postDao.findRankedPostsByUser(getUserFromRequest().getId(), pageable).map(post ->
-        {
-            PostResponseDto dto = postMapper.entityToDto(post);
-            dto.setTotalComments(postCommentDao.countByPost(post));
-            dto.setReactionSummary(postReactionDao.getReactionSummaryByPost(post));
-
-            Set<PostReaction> reactions = post.getReactions();
-            if (user != null && reactions != null) {
-                reactions.stream().filter(reaction -> reaction.getCreator().getId().equals(user.getId())).findFirst().ifPresent(reaction -> {
-                    dto.setHasReacted(true);
-                    dto.setUserReactionEmoji(reaction.getEmoji());
-                    dto.setUserReactionId(reaction.getId());
-                });
+    private void finalizeAttachments(Long postId, List<File> files) {
+        PostResponseDto postResponseDto = transactionTemplate.execute(status -> {
+            Post post = postDao.findById(postId).orElse(null);
+            if (post == null) {
+                log.warn("Post {} was removed before its attachments were finalized", postId);
+                return null;
             }
-            return dto;
+            if (!post.settleAttachments(files.size())) {
+                return null;
+            }
+            files.forEach(file -> {
+                PostAttachment attachment = new PostAttachment();
+                attachment.setFile(file);
+                attachment.setPost(post);
+                post.getAttachments().add(attachment);
+            });
+            if (post.getFailedAttachments() > 0) {
+                log.warn("Post {} lost {} attachments", postId, post.getFailedAttachments());
+            }
+            return postMapper.entityToDto(postDao.save(post));
         });
+        if (postResponseDto != null) {
+            messagingTemplate.convertAndSend("/topic/posts/" + postId + "/updated", postResponseDto);
+        }
+    }
+
+    public CursorSliceResponseDto<PostResponseDto> getRankedPosts(Utils.FeedCursor cursor, int size) {
+        User user = getUserFromRequest();
+        CursorSliceResponseDto<Post> feed = feedService.getFeed(user.getId(), cursor, size);
+
+        return CursorSliceResponseDto.<PostResponseDto>builder()
+                .content(toResponseDtos(feed.getContent(), user))
+                .size(feed.getSize())
+                .hasNext(feed.isHasNext())
+                .nextCursor(feed.getNextCursor())
+                .build();
     }
 
     private User getUserFromRequest() {
-        return userDao.findByEmail(((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername()).orElseThrow(() -> new AppException(AppError.USER_NOT_FOUND));
+        User user = securityService.getUserFromRequest();
+        if (user == null) {
+            throw new AppException(AppError.USER_NOT_FOUND);
+        }
+        return user;
     }
 
     @Transactional
@@ -106,9 +151,19 @@ public class PostService {
         if (!post.getCreator().getId().equals(getUserFromRequest().getId())) {
             throw new AppException(AppError.AUTH_ACCESS_DENIED);
         }
+        feedService.onPostDeleted(post.getId());
+        searchIndexService.removePost(post.getId());
         postDao.delete(post);
     }
 
+    public Page<PostResponseDto> searchPosts(String keyword, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending().and(Sort.by("id").descending()));
+        Page<Post> posts = searchIndexService.searchPosts(keyword)
+                .map(ids -> ids.isEmpty() ? Page.<Post>empty(pageable) : postDao.findByIdIn(ids, pageable))
+                .orElseGet(() -> postDao.searchByContent(keyword, pageable));
+        return toResponseDtos(posts, securityService.getUserFromRequest());
+    }
+
     @Transactional
     public ReactionResponseDto createReaction(Long postId, String emoji) {
         Post post = postDao.findById(postId).orElseThrow(() -> new AppException(AppError.POST_NOT_FOUND));
@@ -121,6 +176,7 @@ public class PostService {
         reaction.setCreator(creator);
         reaction.setPost(post);
         PostReaction persistedReaction = reactionDao.save(reaction);
+        postCounterService.incrementReactionCount(post.getId(), emoji);
         return reactionMapper.entityToDto(persistedReaction);
     }
     public Page<PostResponseDto> getPostsByUserId(Long userId, int page, int size) {
@@ -128,27 +184,33 @@ public class PostService {
 
         Page<Post> posts = postDao.findPostsByUserId(userId, pageable);
 
-        User currentUser = securityService.getUserFromRequest();
+        return toResponseDtos(posts, securityService.getUserFromRequest());
+    }
+
+    private Page<PostResponseDto> toResponseDtos(Page<Post> posts, User currentUser) {
+        return new PageImpl<>(toResponseDtos(posts.getContent(), currentUser), posts.getPageable(), posts.getTotalElements());
+    }
 
-        return posts.map(post -> {
+    private List<PostResponseDto> toResponseDtos(List<Post> posts, User currentUser) {
+        Map<Long, UserReactionDto> userReactions = Collections.emptyMap();
+        if (currentUser != null && !posts.isEmpty()) {
+            List<Long> postIds = posts.stream().map(Post::getId).toList();
+            userReactions = postReactionDao.findUserReactionsByPostIds(currentUser.getId(), postIds).stream()
+                    .collect(Collectors.toMap(UserReactionDto::getTargetId, Function.identity(), (first, second) -> first));
+        }
+        Map<Long, UserReactionDto> reactionsByPostId = userReactions;
+        return posts.stream().map(post -> {
             PostResponseDto dto = postMapper.entityToDto(post);
-            dto.setTotalComments(postCommentDao.countByPost(post));
-            dto.setReactionSummary(postReactionDao.getReactionSummaryByPost(post));
-
-            if (currentUser != null) {
-                post.getReactions().stream()
-                        .filter(r -> r.getCreator().getId().equals(currentUser.getId()))
-                        .findFirst()
-                        .ifPresent(r -> {
-                            dto.setHasReacted(true);
-                            dto.setUserReactionEmoji(r.getEmoji());
-                            dto.setUserReactionId(r.getId());
-                        });
+            UserReactionDto reaction = reactionsByPostId.get(post.getId());
+            if (reaction != null) {
+                dto.setHasReacted(true);
+                dto.setUserReactionEmoji(reaction.getEmoji());
+                dto.setUserReactionId(reaction.getReactionId());
             }
-
             return dto;
-        });
+        }).toList();
     }
+
     public long countPostsByUserId(Long userId) {
         if (userId == null) {
             User currentUser = securityService.getUserFromRequest();
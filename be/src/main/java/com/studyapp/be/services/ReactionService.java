@@ -2,6 +2,9 @@ package com.studyapp.be.services;
 
 import com.studyapp.be.dao.ReactionDao;
 import com.studyapp.be.dto.response.ReactionResponseDto;
+import com.studyapp.be.entities.MessageAttachmentReaction;
+import com.studyapp.be.entities.MessageReaction;
+import com.studyapp.be.entities.PostReaction;
 import com.studyapp.be.entities.User;
 import com.studyapp.be.entities.bases.Reaction;
 import com.studyapp.be.enums.AppError;
@@ -19,6 +22,8 @@ public class ReactionService {
     private final ReactionMapper reactionMapper;
     private final ReactionDao reactionDao;
     private final SecurityService securityService;
+    private final PostCounterService postCounterService;
+    private final RecentMessageCache recentMessageCache;
 
     @Transactional
     public ReactionResponseDto updateReaction(Long reactionId, String emoji) {
@@ -27,8 +32,14 @@ public class ReactionService {
         if (!reaction.getCreator().getId().equals(currentUser.getId())) {
             throw new AppException(AppError.AUTH_ACCESS_DENIED);
         }
+        String oldEmoji = reaction.getEmoji();
         reaction.setEmoji(emoji);
-        return reactionMapper.entityToDto(reactionDao.save(reaction));
+        Reaction savedReaction = reactionDao.save(reaction);
+        if (reaction instanceof PostReaction postReaction) {
+            postCounterService.changeReactionEmoji(postReaction.getPost().getId(), oldEmoji, emoji);
+        }
+        evictCachedRoom(reaction);
+        return reactionMapper.entityToDto(savedReaction);
     }
 
     @Transactional
@@ -39,6 +50,18 @@ public class ReactionService {
             throw new AppException(AppError.AUTH_ACCESS_DENIED);
         }
         reactionDao.delete(reaction);
+        if (reaction instanceof PostReaction postReaction) {
+            postCounterService.decrementReactionCount(postReaction.getPost().getId(), reaction.getEmoji());
+        }
+        evictCachedRoom(reaction);
+    }
+
+    private void evictCachedRoom(Reaction reaction) {
+        if (reaction instanceof MessageReaction messageReaction) {
+            recentMessageCache.evictAfterCommit(messageReaction.getMessage().getRoom().getId());
+        } else if (reaction instanceof MessageAttachmentReaction attachmentReaction) {
+            recentMessageCache.evictAfterCommit(attachmentReaction.getAttachment().getMessage().getRoom().getId());
+        }
     }
 
 }
@@ -0,0 +1,152 @@
+package com.studyapp.be.services;
+
+import com.studyapp.be.dao.MessageReadReceiptDao;
+import com.studyapp.be.dto.request.ReadReceiptRequestDto;
+import com.studyapp.be.dto.response.ReadReceiptDto;
+import com.studyapp.be.dto.response.ReadReceiptEventDto;
+import com.studyapp.be.dto.response.UnreadCountDto;
+import com.studyapp.be.enums.AppError;
+import com.studyapp.be.enums.MessageStatus;
+import com.studyapp.be.exceptions.AppException;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadReceiptService {
+    // The watermark stores the message's (created_at, id) so it only moves forward in room order, even though
+    // pooled sequence ids are not monotonic. Joining chat_room_member drops reports from non-members.
+    private static final String UPSERT_SQL = "INSERT INTO message_read_receipts (room_id, user_id, last_%1$s_message_id, last_%1$s_at, updated_at) " +
+            "SELECT m.room_id, crm.user_id, m.id, m.created_at, now() FROM message m " +
+            "JOIN chat_room_member crm ON crm.chat_room_id = m.room_id AND crm.user_id = ? " +
+            "WHERE m.id = ? AND m.room_id = ? " +
+            "ON CONFLICT (room_id, user_id) DO UPDATE SET last_%1$s_message_id = EXCLUDED.last_%1$s_message_id, " +
+            "last_%1$s_at = EXCLUDED.last_%1$s_at, updated_at = EXCLUDED.updated_at " +
+            "WHERE message_read_receipts.last_%1$s_at IS NULL " +
+            "OR (EXCLUDED.last_%1$s_at, EXCLUDED.last_%1$s_message_id) > (message_read_receipts.last_%1$s_at, message_read_receipts.last_%1$s_message_id)";
+    private static final String DELIVERED_SQL = String.format(UPSERT_SQL, "delivered");
+    private static final String READ_SQL = String.format(UPSERT_SQL, "read");
+
+    private final MessageReadReceiptDao messageReadReceiptDao;
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.chat.read-receipts.batch-size:500}")
+    private int batchSize;
+
+    private final Map<ReceiptKey, Long> delivered = new ConcurrentHashMap<>();
+    private final Map<ReceiptKey, Long> read = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    public void report(Long roomId, Long userId, ReadReceiptRequestDto receipt) {
+        if (receipt.getMessageId() == null || receipt.getStatus() == null || receipt.getStatus() == MessageStatus.SENT) {
+            throw new AppException(AppError.MESSAGE_INVALID_RECEIPT);
+        }
+        ReceiptKey key = new ReceiptKey(roomId, userId);
+        // A read implies delivery, but must not replace a DELIVERED report for a newer message that is still pending.
+        if (receipt.getStatus() == MessageStatus.READ) {
+            read.put(key, receipt.getMessageId());
+            delivered.putIfAbsent(key, receipt.getMessageId());
+        } else {
+            delivered.put(key, receipt.getMessageId());
+        }
+    }
+
+    public List<ReadReceiptDto> findReceipts(Long roomId) {
+        return messageReadReceiptDao.findReceiptsByRoomIds(List.of(roomId));
+    }
+
+    public List<UnreadCountDto> countUnread(Long userId, Collection<Long> roomIds) {
+        if (roomIds.isEmpty()) {
+            return List.of();
+        }
+        return messageReadReceiptDao.countUnread(userId, roomIds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.read-receipts.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            Map<ReceiptKey, Long> deliveredBatch = drain(delivered);
+            Map<ReceiptKey, Long> readBatch = drain(read);
+            if (deliveredBatch.isEmpty() && readBatch.isEmpty()) {
+                return;
+            }
+            try {
+                upsert(DELIVERED_SQL, deliveredBatch);
+                upsert(READ_SQL, readBatch);
+            } catch (Exception exception) {
+                log.error("Flush {} receipts error: {}", deliveredBatch.size() + readBatch.size(), exception.getLocalizedMessage());
+                deliveredBatch.forEach(delivered::putIfAbsent);
+                readBatch.forEach(read::putIfAbsent);
+                return;
+            }
+            Set<ReceiptKey> changed = new HashSet<>(deliveredBatch.keySet());
+            changed.addAll(readBatch.keySet());
+            broadcast(changed);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private Map<ReceiptKey, Long> drain(Map<ReceiptKey, Long> pending) {
+        Map<ReceiptKey, Long> batch = new HashMap<>();
+        for (ReceiptKey key : pending.keySet()) {
+            Long messageId = pending.remove(key);
+            if (messageId != null) {
+                batch.put(key, messageId);
+            }
+        }
+        return batch;
+    }
+
+    private void upsert(String sql, Map<ReceiptKey, Long> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, new ArrayList<>(batch.entrySet()), batchSize, (statement, entry) -> {
+            statement.setLong(1, entry.getKey().getUserId());
+            statement.setLong(2, entry.getValue());
+            statement.setLong(3, entry.getKey().getRoomId());
+        });
+    }
+
+    private void broadcast(Set<ReceiptKey> changed) {
+        Set<Long> roomIds = changed.stream().map(ReceiptKey::getRoomId).collect(Collectors.toSet());
+        messageReadReceiptDao.findReceiptsByRoomIds(roomIds).stream()
+                .filter(receipt -> changed.contains(new ReceiptKey(receipt.getRoomId(), receipt.getUserId())))
+                .collect(Collectors.groupingBy(ReadReceiptDto::getRoomId))
+                .forEach((roomId, receipts) -> messagingTemplate.convertAndSend("/topic/chatRooms/" + roomId + "/readReceipts",
+                        ReadReceiptEventDto.builder().roomId(roomId).receipts(receipts).build()));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class ReceiptKey {
+        private final Long roomId;
+        private final Long userId;
+    }
+}
@@ -0,0 +1,232 @@
+package com.studyapp.be.services;
+
+import com.studyapp.be.dto.response.MessageResponseDto;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Component
+public class RecentMessageCache {
+    private static final int VERSION_STRIPES = 1024;
+    private static final long ENTRY_OVERHEAD_BYTES = 512;
+    private static final long ATTACHMENT_BYTES = 256;
+
+    @Getter
+    @Value("${app.chat.recent-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.websocket.broker:simple}")
+    private String broker;
+
+    @Getter
+    @Value("${app.chat.recent-cache.messages-per-room:50}")
+    private int messagesPerRoom;
+
+    @Value("${app.chat.recent-cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${app.chat.recent-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    private final LinkedHashMap<Long, RoomEntry> rooms = new LinkedHashMap<>(16, 0.75f, true);
+    private final long[] versions = new long[VERSION_STRIPES];
+    private long totalBytes;
+
+    // The cache only sees writes made on this node; with a shared broker other nodes would serve stale history.
+    @PostConstruct
+    void init() {
+        if (enabled && !"simple".equals(broker)) {
+            log.info("Recent message cache disabled: app.websocket.broker={} implies several nodes", broker);
+            enabled = false;
+        }
+    }
+
+    public synchronized long version(Long roomId) {
+        return versions[stripe(roomId)];
+    }
+
+    public synchronized Optional<Page<MessageResponseDto>> findPage(Long roomId, Pageable pageable) {
+        RoomEntry entry = rooms.get(roomId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            remove(roomId);
+            return Optional.empty();
+        }
+        Sort.Order order = pageable.getSort().getOrderFor("createdAt");
+        if (order == null || pageable.getSort().stream().count() != 1) {
+            return Optional.empty();
+        }
+        long total = entry.total;
+        long cachedFrom = total - entry.messages.size();
+        long from = Math.min(pageable.getOffset(), total);
+        long to = Math.min(from + pageable.getPageSize(), total);
+        List<MessageResponseDto> ascending = entry.messages;
+        List<MessageResponseDto> content;
+        if (order.isAscending()) {
+            if (from < cachedFrom) {
+                return Optional.empty();
+            }
+            content = new ArrayList<>(ascending.subList((int) (from - cachedFrom), (int) (to - cachedFrom)));
+        } else {
+            if (total - to < cachedFrom) {
+                return Optional.empty();
+            }
+            content = new ArrayList<>(ascending.subList((int) (total - to - cachedFrom), (int) (total - from - cachedFrom)));
+            Collections.reverse(content);
+        }
+        return Optional.of(new PageImpl<>(content, pageable, total));
+    }
+
+    public synchronized void put(Long roomId, long expectedVersion, List<MessageResponseDto> ascending, long total) {
+        if (!enabled || versions[stripe(roomId)] != expectedVersion) {
+            return;
+        }
+        remove(roomId);
+        RoomEntry entry = new RoomEntry(total, System.currentTimeMillis() + ttlMs);
+        List<MessageResponseDto> recent = ascending.subList(Math.max(0, ascending.size() - messagesPerRoom), ascending.size());
+        recent.forEach(message -> entry.add(message, estimate(message)));
+        rooms.put(roomId, entry);
+        totalBytes += entry.bytes;
+        evictOverflow();
+    }
+
+    public void appendAfterCommit(Long roomId, MessageResponseDto message) {
+        afterCommit(() -> append(roomId, message));
+    }
+
+    public void replaceAfterCommit(Long roomId, MessageResponseDto message) {
+        afterCommit(() -> replace(roomId, message));
+    }
+
+    public void evictAfterCommit(Long roomId) {
+        evict(roomId);
+        afterCommit(() -> evict(roomId));
+    }
+
+    public synchronized void append(Long roomId, MessageResponseDto message) {
+        versions[stripe(roomId)]++;
+        RoomEntry entry = rooms.get(roomId);
+        if (entry == null) {
+            return;
+        }
+        long size = estimate(message);
+        entry.add(message, size);
+        entry.total++;
+        totalBytes += size;
+        while (entry.messages.size() > messagesPerRoom) {
+            totalBytes -= entry.removeOldest();
+        }
+        evictOverflow();
+    }
+
+    public synchronized void replace(Long roomId, MessageResponseDto message) {
+        versions[stripe(roomId)]++;
+        RoomEntry entry = rooms.get(roomId);
+        if (entry == null) {
+            return;
+        }
+        for (int i = 0; i < entry.messages.size(); i++) {
+            if (entry.messages.get(i).getId().equals(message.getId())) {
+                totalBytes += entry.set(i, message, estimate(message));
+                evictOverflow();
+                return;
+            }
+        }
+    }
+
+    public synchronized void evict(Long roomId) {
+        versions[stripe(roomId)]++;
+        remove(roomId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void remove(Long roomId) {
+        RoomEntry removed = rooms.remove(roomId);
+        if (removed != null) {
+            totalBytes -= removed.bytes;
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, RoomEntry>> iterator = rooms.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            totalBytes -= iterator.next().getValue().bytes;
+            iterator.remove();
+        }
+    }
+
+    private long estimate(MessageResponseDto message) {
+        long content = message.getContent() != null ? 2L * message.getContent().length() : 0;
+        long attachments = message.getAttachments() != null ? ATTACHMENT_BYTES * message.getAttachments().size() : 0;
+        long reactions = message.getReactions() != null ? ATTACHMENT_BYTES * message.getReactions().size() : 0;
+        return ENTRY_OVERHEAD_BYTES + content + attachments + reactions;
+    }
+
+    private int stripe(Long roomId) {
+        return (int) Math.floorMod(roomId, (long) VERSION_STRIPES);
+    }
+
+    private static class RoomEntry {
+        private final List<MessageResponseDto> messages = new ArrayList<>();
+        private final List<Long> sizes = new ArrayList<>();
+        private final long expiresAt;
+        private long total;
+        private long bytes;
+
+        RoomEntry(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+
+        void add(MessageResponseDto message, long size) {
+            messages.add(message);
+            sizes.add(size);
+            bytes += size;
+        }
+
+        long set(int index, MessageResponseDto message, long size) {
+            messages.set(index, message);
+            long delta = size - sizes.set(index, size);
+            bytes += delta;
+            return delta;
+        }
+
+        long removeOldest() {
+            messages.remove(0);
+            long size = sizes.remove(0);
+            bytes -= size;
+            return size;
+        }
+    }
+}
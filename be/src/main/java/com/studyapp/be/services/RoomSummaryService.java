@@ -0,0 +1,82 @@
+package com.studyapp.be.services;
+
+import com.studyapp.be.dao.RoomSummaryDao;
+import com.studyapp.be.dto.response.ChatRoomResponseDto;
+import com.studyapp.be.dto.response.UnreadCountDto;
+import com.studyapp.be.entities.RoomSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomSummaryService {
+    private final RoomSummaryDao roomSummaryDao;
+    private final ReadReceiptService readReceiptService;
+    private final SecurityService securityService;
+
+    public void createRoom(Long roomId, LocalDateTime createdAt) {
+        roomSummaryDao.createEmpty(roomId, createdAt != null ? createdAt : LocalDateTime.now());
+        roomSummaryDao.copyActivityToMembers(roomId);
+    }
+
+    // Callers pass at most one message per room; ON CONFLICT cannot touch the same row twice in one statement.
+    public void recordMessages(Collection<Long> messageIds) {
+        if (!messageIds.isEmpty()) {
+            roomSummaryDao.recordMessages(messageIds);
+            roomSummaryDao.copyActivityToMembersOfMessages(messageIds);
+        }
+    }
+
+    public void removeMessage(Long roomId, Long messageId) {
+        roomSummaryDao.replaceRemovedMessage(roomId, messageId);
+    }
+
+    public void attachSummaries(Collection<ChatRoomResponseDto> rooms) {
+        if (rooms.isEmpty()) {
+            return;
+        }
+        List<Long> roomIds = rooms.stream().map(ChatRoomResponseDto::getId).toList();
+        Map<Long, RoomSummary> summaries = StreamSupport.stream(roomSummaryDao.findAllById(roomIds).spliterator(), false)
+                .collect(Collectors.toMap(RoomSummary::getRoomId, Function.identity()));
+        Long userId = securityService.getCurrentUserId();
+        Map<Long, Long> unreadCounts = userId == null ? Map.of() : readReceiptService.countUnread(userId, roomIds).stream()
+                .collect(Collectors.toMap(UnreadCountDto::getRoomId, UnreadCountDto::getUnreadCount));
+        rooms.forEach(room -> {
+            RoomSummary summary = summaries.get(room.getId());
+            if (summary != null) {
+                room.setLastMessageId(summary.getLastMessageId());
+                room.setLastMessagePreview(summary.getLastMessagePreview());
+                room.setLastSenderId(summary.getLastSenderId());
+                room.setLastMessageAt(summary.getLastMessageAt());
+                room.setLastActivityAt(summary.getLastActivityAt());
+            }
+            room.setUnreadCount(unreadCounts.getOrDefault(room.getId(), 0L));
+        });
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        int rooms = roomSummaryDao.backfillMissing();
+        if (rooms > 0) {
+            log.info("Backfilled {} room summaries", rooms);
+        }
+        int members = roomSummaryDao.backfillMemberActivity();
+        if (members > 0) {
+            log.info("Backfilled last activity for {} room members", members);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.studyapp.be.services;
+
+import com.studyapp.be.dao.MessageDao;
+import com.studyapp.be.dao.PostDao;
+import com.studyapp.be.dto.response.SearchDocumentDto;
+import com.studyapp.be.search.SegmentedIndex;
+import com.studyapp.be.search.TextAnalyzer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process alternative to the Postgres full-text index for deployments without it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexService {
+    private static final String ROOM_TERM = "#room:";
+    private static final String SENDER_TERM = "#sender:";
+    private static final String OWNER_TERM = "#owner:";
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final long CATCH_UP_OVERLAP_MS = 60_000;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final MessageDao messageDao;
+    private final PostDao postDao;
+    private final Executor asyncExecutor;
+
+    @Getter
+    @Value("${app.search.engine.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.search.engine.directory:data/search-index}")
+    private String directory;
+
+    @Value("${app.search.engine.flush-docs:1000}")
+    private int flushDocs;
+
+    @Value("${app.search.engine.load-flush-docs:50000}")
+    private int loadFlushDocs;
+
+    @Value("${app.search.engine.merge-factor:4}")
+    private int mergeFactor;
+
+    @Value("${app.search.engine.max-candidates:5000}")
+    private int maxCandidates;
+
+    // Messages are filtered further in chunks, so more candidates can be handed over than fit in a single query.
+    @Value("${app.search.engine.max-message-candidates:50000}")
+    private int maxMessageCandidates;
+
+    @Value("${app.websocket.broker:simple}")
+    private String broker;
+
+    private final AtomicBoolean maintenanceScheduled = new AtomicBoolean();
+    private SegmentedIndex messages;
+    private SegmentedIndex posts;
+    private volatile boolean ready;
+
+    // Each node only indexes its own writes; with a shared broker searches would miss messages sent through other nodes.
+    @PostConstruct
+    void init() throws IOException {
+        if (enabled && !"simple".equals(broker)) {
+            log.info("Search engine disabled: app.websocket.broker={} implies several nodes", broker);
+            enabled = false;
+        }
+        if (!enabled) {
+            return;
+        }
+        messages = new SegmentedIndex(Paths.get(directory, "messages"));
+        messages.open();
+        posts = new SegmentedIndex(Paths.get(directory, "posts"));
+        posts.open();
+    }
+
+    // Documents written after the last flushed segment are lost with the memtable on a crash; re-read them from the database.
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (!enabled) {
+            return;
+        }
+        asyncExecutor.execute(() -> {
+            try {
+                load(messages, messageDao::findSearchDocuments, this::messageTerms);
+                load(posts, postDao::findSearchDocuments, this::postTerms);
+                ready = true;
+                log.info("Search index ready: {} message segments, {} post segments", messages.segmentCount(), posts.segmentCount());
+            } catch (Exception exception) {
+                log.error("Load search index error: {}", exception.getLocalizedMessage());
+            }
+        });
+    }
+
+    public void indexMessage(Long id, String content, LocalDateTime createdAt, Long roomId, Long senderId) {
+        if (enabled) {
+            SearchDocumentDto document = new SearchDocumentDto(id, content, createdAt, roomId, senderId);
+            afterCommit(() -> add(messages, document, messageTerms(document)));
+        }
+    }
+
+    public void indexPost(Long id, String content, LocalDateTime createdAt, Long creatorId) {
+        if (enabled) {
+            SearchDocumentDto document = new SearchDocumentDto(id, content, createdAt, creatorId);
+            afterCommit(() -> add(posts, document, postTerms(document)));
+        }
+    }
+
+    public void removeMessage(Long id) {
+        if (enabled) {
+            afterCommit(() -> remove(messages, id));
+        }
+    }
+
+    public void removePost(Long id) {
+        if (enabled) {
+            afterCommit(() -> remove(posts, id));
+        }
+    }
+
+    /**
+     * Ids of live messages containing every keyword term, newest ids first and at most max-message-candidates of them;
+     * empty when the index can't answer yet.
+     */
+    public Optional<List<Long>> searchMessages(String keyword, Long roomId, Long senderId) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        List<String> terms = new ArrayList<>(TextAnalyzer.terms(keyword));
+        if (terms.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        if (roomId != null) {
+            terms.add(ROOM_TERM + roomId);
+        }
+        if (senderId != null) {
+            terms.add(SENDER_TERM + senderId);
+        }
+        return Optional.of(messages.search(terms, maxMessageCandidates));
+    }
+
+    public Optional<List<Long>> searchPosts(String keyword) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        Set<String> terms = TextAnalyzer.terms(keyword);
+        return Optional.of(terms.isEmpty() ? List.of() : posts.search(terms, maxCandidates));
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.engine.flush-interval-ms:10000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        maintenanceScheduled.set(false);
+        for (SegmentedIndex index : List.of(messages, posts)) {
+            try {
+                index.flush();
+                index.merge(mergeFactor);
+            } catch (IOException exception) {
+                log.error("Search index maintenance error: {}", exception.getLocalizedMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        messages.close();
+        posts.close();
+    }
+
+    private void load(SegmentedIndex index, DocumentSource source, TermExtractor extractor) throws IOException {
+        LocalDateTime since = index.isEmpty() ? BEGINNING : toDateTime(index.checkpoint() - CATCH_UP_OVERLAP_MS);
+        Long afterId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<SearchDocumentDto> batch = source.find(since, afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (SearchDocumentDto document : batch) {
+                index.add(document.getId(), extractor.terms(document), toMillis(document.getCreatedAt()));
+            }
+            loaded += batch.size();
+            // A bulk load writes large segments and merges as it goes instead of leaving thousands for maintain().
+            if (index.memtableSize() >= Math.max(flushDocs, loadFlushDocs)) {
+                index.flush();
+                index.merge(mergeFactor);
+            }
+            if (batch.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        index.flush();
+        index.merge(mergeFactor);
+        log.info("Indexed {} documents since {}", loaded, since);
+    }
+
+    private void add(SegmentedIndex index, SearchDocumentDto document, List<String> terms) {
+        index.add(document.getId(), terms, toMillis(document.getCreatedAt()));
+        if (index.memtableSize() >= flushDocs && maintenanceScheduled.compareAndSet(false, true)) {
+            asyncExecutor.execute(this::maintain);
+        }
+    }
+
+    private void remove(SegmentedIndex index, Long id) {
+        try {
+            index.remove(id);
+        } catch (IOException exception) {
+            log.error("Remove {} from search index error: {}", id, exception.getLocalizedMessage());
+        }
+    }
+
+    private List<String> messageTerms(SearchDocumentDto document) {
+        List<String> terms = new ArrayList<>(TextAnalyzer.terms(document.getContent()));
+        terms.add(ROOM_TERM + document.getScopeId());
+        terms.add(SENDER_TERM + document.getOwnerId());
+        return terms;
+    }
+
+    private List<String> postTerms(SearchDocumentDto document) {
+        List<String> terms = new ArrayList<>(TextAnalyzer.terms(document.getContent()));
+        terms.add(OWNER_TERM + document.getOwnerId());
+        return terms;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? System.currentTimeMillis() : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(Math.max(0, millis)), ZoneId.systemDefault());
+    }
+
+    private interface DocumentSource {
+        List<SearchDocumentDto> find(LocalDateTime since, Long afterId, Pageable pageable);
+    }
+
+    private interface TermExtractor {
+        List<String> terms(SearchDocumentDto document);
+    }
+}
@@ -1,20 +1,45 @@
 package com.studyapp.be.services;
 
 import com.studyapp.be.dao.UserDao;
+import com.studyapp.be.dto.response.CustomUserDetails;
 import com.studyapp.be.entities.User;
-import com.studyapp.be.enums.AppError;
-import com.studyapp.be.exceptions.AppException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Service
 @RequiredArgsConstructor
 public class SecurityService {
+    public static final String CURRENT_USER_ATTRIBUTE = SecurityService.class.getName() + ".CURRENT_USER";
+
     private final UserDao userDao;
 
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
     public User getUserFromRequest() {
-        return userDao.findByEmail(((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername()).orElse(null);
+        Long userId = getCurrentUserId();
+        if (userId == null) return null;
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cachedUser
+                && userId.equals(cachedUser.getId())) {
+            return cachedUser;
+        }
+
+        User user = userDao.findById(userId).orElse(null);
+        if (requestAttributes != null && user != null) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
     }
 }
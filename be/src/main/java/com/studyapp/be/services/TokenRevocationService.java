@@ -0,0 +1,64 @@
+package com.studyapp.be.services;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist of logged-out token ids, shared through Redis so a logout applies on every node. Ids revoked or
+ * seen revoked on this node are also kept locally until the token expires, so repeat checks skip Redis.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+    private static final String KEY_PREFIX = "jwt:revoked:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+
+    @Value("${app.jwt.revocation.enabled:true}")
+    private boolean enabled;
+
+    public void revokeToken(Claims claims) {
+        if (!enabled || claims.getId() == null) return;
+        long expiresAt = claims.getExpiration().getTime();
+        revokedTokenIds.put(claims.getId(), expiresAt);
+        long ttl = expiresAt - System.currentTimeMillis();
+        if (ttl <= 0) return;
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + claims.getId(), "1", Duration.ofMillis(ttl));
+        } catch (Exception e) {
+            log.error("Share revocation of token {} error: {}", claims.getId(), e.getLocalizedMessage());
+        }
+    }
+
+    public boolean isRevoked(Claims claims) {
+        if (!enabled || claims.getId() == null) return false;
+        if (revokedTokenIds.containsKey(claims.getId())) return true;
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + claims.getId()))) {
+                revokedTokenIds.put(claims.getId(), claims.getExpiration().getTime());
+                return true;
+            }
+        } catch (Exception e) {
+            log.error("Check revocation of token {} error: {}", claims.getId(), e.getLocalizedMessage());
+        }
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.cleanup-interval:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokenIds.values().removeIf(expiresAt -> expiresAt < now);
+    }
+}
@@ -0,0 +1,156 @@
+package com.studyapp.be.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps the many spellings of a link (tracking params, fragments, www., trailing slashes, shorteners)
+ * to one cache key. The key is only used for caching; pages are still fetched from the URL the user sent.
+ */
+@Slf4j
+@Component
+public class UrlCanonicalizer {
+    private static final int MAX_REDIRECTS = 5;
+    private static final Set<String> TRACKING_PARAMS = Set.of(
+            "fbclid", "gclid", "dclid", "msclkid", "yclid", "igshid", "mc_cid", "mc_eid", "_ga", "_gl", "ref_src", "si");
+
+    @Value("${link-preview.timeout:10000}")
+    private int timeout;
+
+    @Value("${link-preview.shortener-domains:bit.ly,t.co,tinyurl.com,goo.gl,ow.ly,is.gd,buff.ly,vt.tiktok.com}")
+    private List<String> shortenerDomains;
+
+    private HttpClient httpClient;
+
+    public String canonicalize(String url) {
+        try {
+            URI uri = new URI(url);
+            String host = stripWww(uri.getHost().toLowerCase(Locale.ROOT));
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            String query = stripTracking(uri.getRawQuery());
+            if ("youtu.be".equals(host) && path.length() > 1) {
+                query = query == null ? "v=" + path.substring(1) : "v=" + path.substring(1) + "&" + query;
+                host = "youtube.com";
+                path = "/watch";
+            }
+            if (path.length() > 1 && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            StringBuilder canonical = new StringBuilder(scheme).append("://").append(host);
+            if (uri.getPort() != -1 && !isDefaultPort(scheme, uri.getPort())) {
+                canonical.append(':').append(uri.getPort());
+            }
+            canonical.append(path);
+            if (query != null) {
+                canonical.append('?').append(query);
+            }
+            return canonical.toString();
+        } catch (URISyntaxException | RuntimeException e) {
+            return url;
+        }
+    }
+
+    public boolean isShortened(String url) {
+        try {
+            String host = new URI(url).getHost().toLowerCase(Locale.ROOT);
+            return shortenerDomains.contains(stripWww(host));
+        } catch (URISyntaxException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Follows the shortener's redirects without downloading the target page; returns the input on any failure.
+     */
+    public String resolve(String url) {
+        String current = url;
+        try {
+            for (int i = 0; i < MAX_REDIRECTS && isShortened(current); i++) {
+                HttpRequest request = HttpRequest.newBuilder(new URI(current))
+                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                        .timeout(Duration.ofMillis(timeout))
+                        .build();
+                HttpResponse<Void> response = client().send(request, HttpResponse.BodyHandlers.discarding());
+                String location = response.headers().firstValue("Location").orElse(null);
+                if (response.statusCode() / 100 != 3 || location == null) {
+                    break;
+                }
+                URI next = new URI(current).resolve(location);
+                if (!"http".equalsIgnoreCase(next.getScheme()) && !"https".equalsIgnoreCase(next.getScheme())) {
+                    break;
+                }
+                current = next.toString();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Resolve shortened URL {} error: {}", url, e.getLocalizedMessage());
+        }
+        return current;
+    }
+
+    // A page may only claim a canonical URL on its own site, otherwise it could overwrite another site's preview.
+    public String canonicalFor(String pageUrl, String declaredCanonical) {
+        if (declaredCanonical == null || declaredCanonical.isBlank()) {
+            return null;
+        }
+        try {
+            URI page = new URI(pageUrl);
+            URI declared = page.resolve(declaredCanonical.trim());
+            if (declared.getHost() == null || !stripWww(declared.getHost().toLowerCase(Locale.ROOT)).equals(stripWww(page.getHost().toLowerCase(Locale.ROOT)))) {
+                return null;
+            }
+            return canonicalize(declared.toString());
+        } catch (URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private String stripTracking(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return null;
+        }
+        String query = Arrays.stream(rawQuery.split("&"))
+                .filter(param -> !param.isEmpty() && !isTracking(param))
+                .collect(Collectors.joining("&"));
+        return query.isEmpty() ? null : query;
+    }
+
+    private boolean isTracking(String param) {
+        int separator = param.indexOf('=');
+        String name = (separator < 0 ? param : param.substring(0, separator)).toLowerCase(Locale.ROOT);
+        return name.startsWith("utm_") || TRACKING_PARAMS.contains(name);
+    }
+
+    private static String stripWww(String host) {
+        return host.startsWith("www.") ? host.substring(4) : host;
+    }
+
+    private static boolean isDefaultPort(String scheme, int port) {
+        return ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+    }
+
+    private synchronized HttpClient client() {
+        if (httpClient == null) {
+            httpClient = HttpClient.newBuilder()
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofMillis(timeout))
+                    .build();
+        }
+        return httpClient;
+    }
+}
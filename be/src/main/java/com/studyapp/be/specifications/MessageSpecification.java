@@ -1,9 +1,12 @@
 package com.studyapp.be.specifications;
 
+import com.studyapp.be.configs.SearchFunctionContributor;
 import com.studyapp.be.entities.Message;
 import com.studyapp.be.entities.MessageAttachment;
+import com.studyapp.be.enums.MessageSearchMode;
 import com.studyapp.be.enums.MessageStatus;
 import com.studyapp.be.enums.MessageType;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
@@ -56,9 +59,30 @@ public class MessageSpecification {
                 criteriaBuilder.like(criteriaBuilder.lower(root.get("content")), "%" + keyword.toLowerCase() + "%");
     }
 
+    public static Specification<Message> matchesText(String keyword, boolean orderByRank) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<String> content = root.get("content");
+            Expression<String> text = criteriaBuilder.literal(keyword);
+            if (orderByRank && query != null && !Long.class.equals(query.getResultType())) {
+                query.orderBy(
+                        criteriaBuilder.desc(criteriaBuilder.function(SearchFunctionContributor.RANK, Double.class, content, text)),
+                        criteriaBuilder.desc(root.get("createdAt")),
+                        criteriaBuilder.desc(root.get("id")));
+            }
+            return criteriaBuilder.isTrue(criteriaBuilder.function(SearchFunctionContributor.MATCH, Boolean.class, content, text));
+        };
+    }
+
     public static Specification<Message> combineAll(
             Long senderId, Long roomId, MessageStatus status, MessageType type,
             Boolean isDeleted, LocalDateTime startDate, LocalDateTime endDate, String keyword, Boolean isHasFiles) {
+        return combineAll(senderId, roomId, status, type, isDeleted, startDate, endDate, keyword, isHasFiles, MessageSearchMode.CONTAINS, false);
+    }
+
+    public static Specification<Message> combineAll(
+            Long senderId, Long roomId, MessageStatus status, MessageType type,
+            Boolean isDeleted, LocalDateTime startDate, LocalDateTime endDate, String keyword, Boolean isHasFiles,
+            MessageSearchMode searchMode, boolean orderByRank) {
         return (root, query, criteriaBuilder) -> {
             Predicate predicate = criteriaBuilder.conjunction();
 
@@ -81,7 +105,8 @@ public class MessageSpecification {
                 predicate = criteriaBuilder.and(predicate, createdAtBetween(startDate, endDate).toPredicate(root, query, criteriaBuilder));
             }
             if (keyword != null && !keyword.isBlank()) {
-                predicate = criteriaBuilder.and(predicate, hasContent(keyword).toPredicate(root, query, criteriaBuilder));
+                Specification<Message> content = searchMode == MessageSearchMode.FULL_TEXT ? matchesText(keyword, orderByRank) : hasContent(keyword);
+                predicate = criteriaBuilder.and(predicate, content.toPredicate(root, query, criteriaBuilder));
             }
             if (isHasFiles != null && isHasFiles) {
                 predicate = criteriaBuilder.and(predicate, isHasFiles().toPredicate(root, query, criteriaBuilder));
@@ -0,0 +1,93 @@
+package com.studyapp.be.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.studyapp.be.enums.AppError;
+import com.studyapp.be.exceptions.AppException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryFileStorage implements FileStorage {
+    private final Cloudinary storage;
+
+    @Value("${app.cloud-storage.asset-folder}")
+    private String assetFolder;
+
+    @Value("${app.cloud-storage.chunk-size:6291456}")
+    private int chunkSize;
+
+    @Value("${app.cloud-storage.max-in-flight-bytes:67108864}")
+    private int maxInFlightBytes;
+
+    @Value("${app.cloud-storage.budget-wait-ms:30000}")
+    private long budgetWaitMs;
+
+    private Semaphore inFlightBytes;
+
+    @PostConstruct
+    void initUploadBudget() {
+        maxInFlightBytes = Math.max(maxInFlightBytes, chunkSize);
+        inFlightBytes = new Semaphore(maxInFlightBytes, true);
+    }
+
+    @Override
+    public StoredObject store(InputStream content, long size, String type) throws IOException {
+        return upload(content, size, type);
+    }
+
+    @Override
+    public StoredObject store(Path source, long size, String type) throws IOException {
+        return upload(source.toFile(), size, type);
+    }
+
+    @Override
+    public void delete(String id, String type) throws IOException {
+        try {
+            storage.api().deleteResources(Collections.singletonList(id), ObjectUtils.asMap("type", "upload", "resource_type", type));
+        } catch (IOException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    private StoredObject upload(Object source, long size, String type) throws IOException {
+        Map params = ObjectUtils.asMap("folder", assetFolder, "resource_type", type);
+        int bufferSize = (int) Math.max(1, Math.min(size, chunkSize));
+        acquireBudget(bufferSize);
+        try {
+            Map result = storage.uploader().uploadLarge(source, params, bufferSize);
+            return new StoredObject(result.get("public_id").toString(), result.get("secure_url").toString());
+        } finally {
+            inFlightBytes.release(bufferSize);
+        }
+    }
+
+    private void acquireBudget(int bytes) {
+        try {
+            if (!inFlightBytes.tryAcquire(bytes, budgetWaitMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Upload budget exhausted, {} of {} bytes in flight", maxInFlightBytes - inFlightBytes.availablePermits(), maxInFlightBytes);
+                throw new AppException(AppError.FILE_UPLOAD_BUSY);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new AppException(AppError.FILE_UPLOAD_BUSY);
+        }
+    }
+}
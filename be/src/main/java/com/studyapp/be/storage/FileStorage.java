@@ -0,0 +1,14 @@
+package com.studyapp.be.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public interface FileStorage {
+
+    StoredObject store(InputStream content, long size, String type) throws IOException;
+
+    StoredObject store(Path source, long size, String type) throws IOException;
+
+    void delete(String id, String type) throws IOException;
+}
@@ -0,0 +1,157 @@
+package com.studyapp.be.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+public class LocalFileStorage implements FileStorage {
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    @Value("${app.storage.local.root:storage}")
+    private String root;
+
+    @Value("${app.storage.local.base-url:}")
+    private String baseUrl;
+
+    @Value("${app.storage.local.url-path:/storage}")
+    private String urlPath;
+
+    @Value("${app.storage.local.staging:}")
+    private String staging;
+
+    private Path rootPath;
+    private Path stagingPath;
+
+    // Partial blobs are staged next to the served root, not under it, so /storage/** can never expose them.
+    // It stays on the same file system by default so the final move can be atomic.
+    @PostConstruct
+    void init() throws IOException {
+        rootPath = Paths.get(root).toAbsolutePath().normalize();
+        Path configured = staging.isBlank() ? rootPath.resolveSibling(rootPath.getFileName() + "-staging") : Paths.get(staging);
+        stagingPath = configured.toAbsolutePath().normalize();
+        if (stagingPath.startsWith(rootPath)) {
+            throw new IllegalStateException("Storage staging directory must be outside " + rootPath);
+        }
+        Files.createDirectories(stagingPath);
+    }
+
+    @Override
+    public StoredObject store(InputStream content, long size, String type) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(stagingPath, "blob-", ".part");
+        try {
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(content, digest));
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = out.transferFrom(in, position, TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                }
+            }
+            return commit(temp, HexFormat.of().formatHex(digest.digest()));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public StoredObject store(Path source, long size, String type) throws IOException {
+        String hash = hash(source);
+        String key = toKey(hash);
+        if (Files.exists(resolve(key))) {
+            return toStoredObject(key);
+        }
+        Path temp = Files.createTempFile(stagingPath, "blob-", ".part");
+        try {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long length = in.size();
+                while (position < length) {
+                    position += in.transferTo(position, length - position, out);
+                }
+            }
+            return commit(temp, hash);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void delete(String id, String type) throws IOException {
+        Files.deleteIfExists(resolve(id));
+    }
+
+    private StoredObject commit(Path temp, String hash) throws IOException {
+        String key = toKey(hash);
+        Path target = resolve(key);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException exception) {
+                log.debug("Blob {} stored concurrently", key);
+            }
+        }
+        return toStoredObject(key);
+    }
+
+    private String hash(Path source) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long length = channel.size();
+            for (long position = 0; position < length; position += MAP_WINDOW) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, length - position));
+                digest.update(buffer);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String toKey(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private Path resolve(String key) {
+        Path path = rootPath.resolve(key).normalize();
+        if (!path.startsWith(rootPath)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+
+    private StoredObject toStoredObject(String key) {
+        return new StoredObject(key, baseUrl + urlPath + "/" + key);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
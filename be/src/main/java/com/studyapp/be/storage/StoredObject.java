@@ -0,0 +1,11 @@
+package com.studyapp.be.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredObject {
+    private String id;
+    private String url;
+}
@@ -0,0 +1,98 @@
+package com.studyapp.be;
+
+import com.studyapp.be.entities.ChatRoom;
+import com.studyapp.be.entities.ChatRoomMember;
+import com.studyapp.be.entities.File;
+import com.studyapp.be.entities.Post;
+import com.studyapp.be.entities.PostAttachment;
+import com.studyapp.be.entities.User;
+import com.studyapp.be.enums.ChatRoomType;
+import com.studyapp.be.enums.Gender;
+import com.studyapp.be.enums.MemberRole;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InsertBatchingBenchmarkTests {
+    private static final int ATTACHMENTS = 20;
+    private static final int MEMBERS = 100;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void postWithManyAttachmentsIsInsertedInBatches() {
+        User creator = persistUsers(1).get(0);
+        statistics.clear();
+
+        Post post = Post.builder().creator(creator).content("benchmark").attachments(new HashSet<>()).build();
+        for (int i = 0; i < ATTACHMENTS; i++) {
+            File file = File.builder().creator(creator).fileCloudId("cloud-" + i).name("file-" + i).type("image").path("/files/" + i).size(1L).build();
+            entityManager.persist(file);
+            PostAttachment attachment = new PostAttachment();
+            attachment.setFile(file);
+            attachment.setPost(post);
+            post.getAttachments().add(attachment);
+        }
+        entityManager.persist(post);
+        entityManager.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertBatched(statements);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1 + 2L * ATTACHMENTS);
+        assertThat(statements).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void largeGroupIsInsertedInBatches() {
+        List<User> users = persistUsers(MEMBERS);
+        statistics.clear();
+
+        ChatRoom chatRoom = ChatRoom.builder().type(ChatRoomType.GROUP).name("benchmark").creator(users.get(0)).build();
+        Set<ChatRoomMember> members = users.stream()
+                .map(user -> ChatRoomMember.builder().chatRoom(chatRoom).user(user).roles(new HashSet<>(Set.of(MemberRole.MEMBER))).build())
+                .collect(Collectors.toSet());
+        chatRoom.setMembers(members);
+        entityManager.persist(chatRoom);
+        entityManager.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertBatched(statements);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1 + MEMBERS);
+        assertThat(statements).isLessThanOrEqualTo(15);
+    }
+
+    private List<User> persistUsers(int count) {
+        List<User> users = IntStream.range(0, count)
+                .mapToObj(i -> User.builder().email("user" + i + "@benchmark.test").password("secret").gender(Gender.OTHER).firstName("User").lastName(String.valueOf(i)).build())
+                .toList();
+        users.forEach(entityManager::persist);
+        entityManager.flush();
+        return users;
+    }
+
+    private void assertBatched(long statements) {
+        // With IDENTITY every entity row is its own INSERT round-trip.
+        assertThat(statements).isLessThan(statistics.getEntityInsertCount());
+    }
+}
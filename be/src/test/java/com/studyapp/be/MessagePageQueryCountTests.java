@@ -0,0 +1,127 @@
+package com.studyapp.be;
+
+import com.studyapp.be.dao.MessageDao;
+import com.studyapp.be.dto.response.MessageResponseDto;
+import com.studyapp.be.entities.ChatRoom;
+import com.studyapp.be.entities.File;
+import com.studyapp.be.entities.Message;
+import com.studyapp.be.entities.MessageAttachment;
+import com.studyapp.be.entities.MessageAttachmentReaction;
+import com.studyapp.be.entities.MessageReaction;
+import com.studyapp.be.entities.User;
+import com.studyapp.be.enums.ChatRoomType;
+import com.studyapp.be.enums.Gender;
+import com.studyapp.be.enums.MessageStatus;
+import com.studyapp.be.mappers.MessageMapper;
+import com.studyapp.be.mappers.MessageMapperImpl;
+import com.studyapp.be.specifications.MessageSpecification;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class MessagePageQueryCountTests {
+    private static final int PAGE_SIZE = 50;
+    private static final int USERS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MessageDao messageDao;
+
+    private final MessageMapper messageMapper = new MessageMapperImpl();
+
+    private Statistics statistics;
+
+    private Long roomId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        List<User> users = IntStream.range(0, USERS)
+                .mapToObj(i -> User.builder().email("user" + i + "@paging.test").password("secret").gender(Gender.OTHER).firstName("User").lastName(String.valueOf(i)).build())
+                .toList();
+        users.forEach(entityManager::persist);
+
+        ChatRoom room = ChatRoom.builder().type(ChatRoomType.GROUP).name("paging").creator(users.get(0)).build();
+        entityManager.persist(room);
+        roomId = room.getId();
+
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            User sender = users.get(i % USERS);
+            Message message = Message.builder().room(room).sender(sender).content("message " + i).status(MessageStatus.SENT)
+                    .attachments(new ArrayList<>()).reactions(new HashSet<>()).build();
+            for (int j = 0; j < 2; j++) {
+                File file = File.builder().creator(sender).fileCloudId("cloud-" + i + "-" + j).name("file").type("image").path("/files/" + i + "/" + j).size(1L).build();
+                entityManager.persist(file);
+                MessageAttachment attachment = new MessageAttachment();
+                attachment.setFile(file);
+                attachment.setMessage(message);
+                attachment.setReactions(new HashSet<>());
+                MessageAttachmentReaction attachmentReaction = new MessageAttachmentReaction();
+                attachmentReaction.setAttachment(attachment);
+                attachmentReaction.setCreator(users.get((i + j) % USERS));
+                attachmentReaction.setEmoji("+1");
+                attachment.getReactions().add(attachmentReaction);
+                message.getAttachments().add(attachment);
+            }
+            MessageReaction reaction = new MessageReaction();
+            reaction.setMessage(message);
+            reaction.setCreator(users.get((i + 1) % USERS));
+            reaction.setEmoji("heart");
+            message.getReactions().add(reaction);
+            entityManager.persist(message);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void latestPageUsesFixedNumberOfStatements() {
+        Slice<Message> page = messageDao.findLatestByRoomId(roomId, PageRequest.of(0, PAGE_SIZE));
+        List<MessageResponseDto> dtos = page.getContent().stream().map(messageMapper::entityToDto).toList();
+
+        assertThat(dtos).hasSize(PAGE_SIZE);
+        assertThat(dtos).allSatisfy(dto -> {
+            assertThat(dto.getSender()).isNotNull();
+            assertThat(dto.getAttachments()).hasSize(2);
+            assertThat(dto.getReactions()).hasSize(1);
+        });
+        // messages joined with senders, one batch of reactions, one batch of attachments with their files
+        assertStatements(3);
+    }
+
+    @Test
+    void searchPageUsesFixedNumberOfStatements() {
+        Page<Message> page = messageDao.findAll(
+                MessageSpecification.combineAll(null, roomId, null, null, null, null, null, null, null),
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")));
+        List<MessageResponseDto> dtos = page.getContent().stream().map(messageMapper::entityToDto).toList();
+
+        assertThat(dtos).hasSize(PAGE_SIZE);
+        // same as above plus the page count query
+        assertStatements(4);
+    }
+
+    private void assertStatements(long expected) {
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+    }
+}
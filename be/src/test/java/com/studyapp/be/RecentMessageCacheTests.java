@@ -0,0 +1,126 @@
+package com.studyapp.be;
+
+import com.studyapp.be.dto.response.MessageResponseDto;
+import com.studyapp.be.entities.ChatRoom;
+import com.studyapp.be.entities.Message;
+import com.studyapp.be.entities.User;
+import com.studyapp.be.enums.ChatRoomType;
+import com.studyapp.be.enums.Gender;
+import com.studyapp.be.enums.MessageStatus;
+import com.studyapp.be.mappers.MessageMapperImpl;
+import com.studyapp.be.services.FileService;
+import com.studyapp.be.services.MessageIdAllocator;
+import com.studyapp.be.services.MessageService;
+import com.studyapp.be.services.MessageWriteBehindService;
+import com.studyapp.be.services.RecentMessageCache;
+import com.studyapp.be.services.RoomSummaryService;
+import com.studyapp.be.services.SearchIndexService;
+import com.studyapp.be.services.SecurityService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({MessageService.class, RecentMessageCache.class, MessageMapperImpl.class})
+class RecentMessageCacheTests {
+    private static final int MESSAGES = 60;
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @MockitoBean
+    private FileService fileService;
+
+    @MockitoBean
+    private SecurityService securityService;
+
+    @MockitoBean
+    private MessageIdAllocator messageIdAllocator;
+
+    @MockitoBean
+    private MessageWriteBehindService messageWriteBehindService;
+
+    @MockitoBean
+    private RoomSummaryService roomSummaryService;
+
+    @MockitoBean
+    private SearchIndexService searchIndexService;
+
+    @MockitoBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    private Statistics statistics;
+
+    private Long roomId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        User sender = User.builder().email("sender@cache.test").password("secret").gender(Gender.OTHER).firstName("Sender").lastName("Cache").build();
+        entityManager.persist(sender);
+        ChatRoom room = ChatRoom.builder().type(ChatRoomType.GROUP).name("cache").creator(sender).build();
+        entityManager.persist(room);
+        roomId = room.getId();
+
+        for (int i = 0; i < MESSAGES; i++) {
+            entityManager.persist(Message.builder().room(room).sender(sender).content("message " + i).status(MessageStatus.SENT)
+                    .attachments(new ArrayList<>()).reactions(new HashSet<>()).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void openingARoomTwiceHitsTheDatabaseOnce() {
+        Pageable latest = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        Page<MessageResponseDto> first = open(latest);
+        long afterFirst = statistics.getPrepareStatementCount();
+        Page<MessageResponseDto> second = open(latest);
+
+        assertThat(afterFirst).isPositive();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterFirst);
+        assertThat(second.getTotalElements()).isEqualTo(MESSAGES);
+        assertThat(second.getContent()).extracting(MessageResponseDto::getId)
+                .containsExactlyElementsOf(first.getContent().stream().map(MessageResponseDto::getId).toList());
+    }
+
+    @Test
+    void oldestFirstPageOutsideTheWindowDoesNotRebuildTheEntry() {
+        Pageable oldest = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.ASC, "createdAt"));
+
+        Page<MessageResponseDto> page = open(oldest);
+
+        assertThat(page.getContent()).first().extracting(MessageResponseDto::getContent).isEqualTo("message 0");
+        assertThat(recentMessageCache.findPage(roomId, PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")))).isEmpty();
+    }
+
+    private Page<MessageResponseDto> open(Pageable pageable) {
+        return messageService.searchMessages(null, roomId, null, null, null, null, null, null, null, null, pageable, true);
+    }
+}
@@ -0,0 +1,44 @@
+package com.studyapp.be;
+
+import com.studyapp.be.search.SegmentedIndex;
+import com.studyapp.be.search.TextAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentedIndexTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void searchesAcrossMemtableSegmentsAndMerges() throws Exception {
+        SegmentedIndex index = new SegmentedIndex(directory);
+        index.open();
+        for (long id = 1; id <= 8; id++) {
+            index.add(id, TextAnalyzer.terms(id % 2 == 0 ? "Đường phố " + id : "duong xa " + id), id);
+            if (id % 2 == 0) {
+                index.flush();
+            }
+        }
+        assertThat(index.segmentCount()).isEqualTo(4);
+        assertThat(index.search(TextAnalyzer.terms("đường"), 10)).containsExactly(8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+        assertThat(index.search(TextAnalyzer.terms("duong pho"), 2)).containsExactly(8L, 6L);
+
+        index.remove(6);
+        index.merge(4);
+        assertThat(index.segmentCount()).isEqualTo(1);
+        assertThat(index.search(TextAnalyzer.terms("pho"), 10)).containsExactly(8L, 4L, 2L);
+        index.close();
+
+        SegmentedIndex reopened = new SegmentedIndex(directory);
+        reopened.open();
+        assertThat(reopened.checkpoint()).isEqualTo(8);
+        assertThat(reopened.search(List.of("xa", "7"), 10)).containsExactly(7L);
+        reopened.close();
+    }
+}
@@ -10,38 +10,19 @@ import {
 } from "../types";
 import { api } from "./api";
 
-export const mapRoomToContact = async (
+export const mapRoomToContact = (
   room: ChatRoom,
   currentUserId: number
-): Promise<Contact> => {
+): Contact => {
   let lastMessage = "Chưa có tin nhắn";
   let messageTime = room.members[0]?.joinedAt;
 
-  try {
-    const response = await api.get("/messages", {
-      params: {
-        roomId: room.id,
-        paged: true,
-        page: 0,
-        size: 1,
-        sort: ["createdAt", "desc"],
-      },
-      paramsSerializer: {
-        indexes: null,
-      },
-    });
-
-    const messages = response.data.content;
-    if (messages.length > 0) {
-      const latest = messages[0];
-      lastMessage =
-        latest.sender.id === currentUserId
-          ? `Bạn: ${latest.content}`
-          : latest.content;
-      messageTime = latest.createdAt;
-    }
-  } catch (error) {
-    console.warn("Không thể lấy tin nhắn:", error);
+  if (room.lastMessageId) {
+    lastMessage =
+      room.lastSenderId === currentUserId
+        ? `Bạn: ${room.lastMessagePreview ?? ""}`
+        : room.lastMessagePreview ?? "";
+    messageTime = room.lastMessageAt;
   }
 
   const isGroup = room.members.length > 2;
@@ -70,6 +51,7 @@ export const mapRoomToContact = async (
     isOnline: room.members.some(
       (m) => m.user.id !== currentUserId && m.user.activeStatus === "ONLINE"
     ),
+    unreadCount: room.unreadCount ?? 0,
   };
 };
 
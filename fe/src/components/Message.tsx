@@ -54,10 +54,10 @@ const ChatBox: React.FC<ChatBoxProps> = ({ contact, onClose }) => {
       const response = await fetchMessages(contact.id, {
         page: pageParam,
         size: 50,
-        sort: ["createdAt,asc"],
+        sort: ["createdAt,desc"],
       });
       return {
-        messages: response.content.map((msg) => ({
+        messages: response.content.reverse().map((msg) => ({
           id: msg.id,
           fromMe: msg.sender.id === currentUserId,
           type:
@@ -80,7 +80,12 @@ const ChatBox: React.FC<ChatBoxProps> = ({ contact, onClose }) => {
     refetchInterval: 10000, // Refetch every 10 seconds as fallback
   });
 
-  const messages = data?.pages.flatMap((page) => page.messages) || [];
+  // Pages arrive newest first; older pages render above the latest one.
+  const messages =
+    data?.pages
+      .slice()
+      .reverse()
+      .flatMap((page) => page.messages) || [];
 
   // WebSocket subscription for real-time messages
   useEffect(() => {
@@ -35,10 +35,10 @@ const Messages: React.FC<MessagesProps> = ({ onSelectContact }) => {
         memberId: currentUserId,
         page: pageParam as number,
         size: 10,
-        sort: ["createdAt", "desc"],
+        sort: ["lastActivityAt", "desc"],
       });
-      const contacts = await Promise.all(
-        response.content.map((room) => mapRoomToContact(room, currentUserId))
+      const contacts = response.content.map((room) =>
+        mapRoomToContact(room, currentUserId)
       );
       return {
         contacts,
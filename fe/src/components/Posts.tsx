@@ -1,11 +1,11 @@
-import { useInfiniteQuery } from "@tanstack/react-query";
+import { InfiniteData, useInfiniteQuery } from "@tanstack/react-query";
 import { useCallback, useEffect, useMemo, useState } from "react";
 import { useNavigate } from "react-router";
 import { Virtuoso } from "react-virtuoso";
 import { api } from "../api/api";
 import routers from "../configs/router";
 import { useAppSelector } from "../hook/hook";
-import { Page, Post } from "../types";
+import { CursorSlice, Post } from "../types";
 import PostCom from "../components/Post";
 
 const Posts = () => {
@@ -22,22 +22,28 @@ const Posts = () => {
     isLoading,
     error,
     refetch,
-  } = useInfiniteQuery<Page<Post>, Error>({
+  } = useInfiniteQuery<
+    CursorSlice<Post>,
+    Error,
+    InfiniteData<CursorSlice<Post>, string>,
+    string[],
+    string
+  >({
     queryKey: ["posts", "feed"],
-    queryFn: async ({ pageParam = 0 }) => {
+    queryFn: async ({ pageParam }) => {
       try {
-        const response = await api.get(`/posts/feed?page=${pageParam}&size=10`);
+        const response = await api.get("/posts/feed", {
+          params: { cursor: pageParam, size: 10 },
+        });
         return response.data;
       } catch (err) {
         console.error("Error fetching posts:", err);
         throw err;
       }
     },
-    initialPageParam: 0,
-    getNextPageParam: (lastPage) => {
-      const { page } = lastPage;
-      return page.number + 1 < page.totalPages ? page.number + 1 : undefined;
-    },
+    initialPageParam: "",
+    getNextPageParam: (lastPage) =>
+      lastPage.hasNext && lastPage.nextCursor ? lastPage.nextCursor : undefined,
     enabled: !!currentUser,
   });
 
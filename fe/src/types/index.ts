@@ -146,6 +146,13 @@ export interface Page<T> {
   size: number;
 }
 
+export interface CursorSlice<T> {
+  content: T[];
+  size: number;
+  hasNext: boolean;
+  nextCursor: string | null;
+}
+
 export interface Contact {
   id: number;
   name: string;
@@ -153,6 +160,7 @@ export interface Contact {
   lastMessage: string;
   time: string;
   isOnline: boolean;
+  unreadCount: number;
 }
 
 export interface Member {
@@ -180,6 +188,12 @@ export interface ChatRoom {
     lastName: string | null;
   };
   members: Member[];
+  lastMessageId?: number;
+  lastMessagePreview?: string;
+  lastSenderId?: number;
+  lastMessageAt?: string;
+  lastActivityAt?: string;
+  unreadCount: number;
 }
 
 export interface Message {